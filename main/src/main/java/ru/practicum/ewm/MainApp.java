@@ -2,10 +2,12 @@ package ru.practicum.ewm;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableScheduling
 @SpringBootApplication
 public class MainApp {
     public static void main(String[] args) {
         SpringApplication.run(MainApp.class);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,80 @@
+package ru.practicum.ewm.category.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.category.dto.CategoryDto;
+import ru.practicum.ewm.category.mapper.CategoryMapper;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.util.AfterCommit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * All categories held as one immutable snapshot. Writers reload it after commit; every reload takes
+ * a new version and a slower, older reload never replaces a newer snapshot.
+ */
+@Component
+@RequiredArgsConstructor
+public class CategoryCache {
+
+    private final CategoryRepository categoryRepository;
+    private final AtomicLong versions = new AtomicLong();
+    private volatile Snapshot snapshot = new Snapshot(0, List.of());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    public void refresh() {
+        AfterCommit.run(this::reload);
+    }
+
+    public Optional<CategoryDto> find(Long catId) {
+        CategoryDto category = snapshot.byId.get(catId);
+        if (category == null && categoryRepository.existsById(catId)) {
+            reload();
+            category = snapshot.byId.get(catId);
+        }
+        return Optional.ofNullable(category);
+    }
+
+    public List<CategoryDto> getPage(int from, int size) {
+        return snapshot.all.stream()
+                .skip((long) from * size)
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    private void reload() {
+        long version = versions.incrementAndGet();
+        List<CategoryDto> categories = categoryRepository.findAll(Sort.by("id")).stream()
+                .map(CategoryMapper::toCategoryDto)
+                .collect(Collectors.toList());
+        synchronized (this) {
+            if (version > snapshot.version) {
+                snapshot = new Snapshot(version, categories);
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final List<CategoryDto> all;
+        private final Map<Long, CategoryDto> byId;
+
+        private Snapshot(long version, List<CategoryDto> all) {
+            this.version = version;
+            this.all = List.copyOf(all);
+            this.byId = all.stream().collect(Collectors.toUnmodifiableMap(CategoryDto::getId, Function.identity()));
+        }
+    }
+}
@@ -1,21 +1,18 @@
 package ru.practicum.ewm.category.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.category.dto.CategoryDto;
 import ru.practicum.ewm.category.dto.NewCategoryDto;
-import ru.practicum.ewm.category.mapper.CategoryMapper;
 import ru.practicum.ewm.category.model.Category;
 import ru.practicum.ewm.category.repository.CategoryRepository;
 import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.event.service.EventDetailsCache;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.ObjectNotFoundException;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static ru.practicum.ewm.category.mapper.CategoryMapper.toCategory;
 import static ru.practicum.ewm.category.mapper.CategoryMapper.toCategoryDto;
@@ -26,6 +23,8 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final CategoryRepository categoryRepository;
     private final EventRepository eventRepository;
+    private final EventDetailsCache eventDetailsCache;
+    private final CategoryCache categoryCache;
 
     @Override
     @Transactional
@@ -38,9 +37,10 @@ public class CategoryServiceImpl implements CategoryService {
             );
         }
 
-        Category category = toCategory(newCategoryDto);
+        Category category = categoryRepository.save(toCategory(newCategoryDto));
+        categoryCache.refresh();
 
-        return toCategoryDto(categoryRepository.save(category));
+        return toCategoryDto(category);
     }
 
     @Override
@@ -59,6 +59,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         categoryRepository.deleteById(catId);
+        categoryCache.refresh();
     }
 
     @Override
@@ -79,29 +80,22 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         category.setName(newCategoryDto.getName());
+        Category updated = categoryRepository.save(category);
+        eventDetailsCache.invalidateAll();
+        categoryCache.refresh();
 
-        return toCategoryDto(categoryRepository.save(category));
+        return toCategoryDto(updated);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<CategoryDto> getCategories(Integer from, Integer size) {
-        Pageable pageable = PageRequest.of(from, size);
-
-        return categoryRepository.findAll(pageable).stream()
-                .map(CategoryMapper::toCategoryDto)
-                .collect(Collectors.toList());
+        return categoryCache.getPage(from, size);
     }
 
     @Override
-    @Transactional(readOnly = true)
     public CategoryDto getCategoryById(Long catId) {
-        Category category = categoryRepository.findById(catId).orElseThrow(() -> {
-            throw new ObjectNotFoundException(String.format(
-                    "Category with ID: %s was not found", catId
-            ));
-        });
-
-        return toCategoryDto(category);
+        return categoryCache.find(catId).orElseThrow(() -> new ObjectNotFoundException(String.format(
+                "Category with ID: %s was not found", catId
+        )));
     }
 }
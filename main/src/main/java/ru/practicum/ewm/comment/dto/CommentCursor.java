@@ -0,0 +1,41 @@
+package ru.practicum.ewm.comment.dto;
+
+import lombok.Value;
+import ru.practicum.ewm.comment.enums.CommentSort;
+import ru.practicum.ewm.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque position in a comment listing: the creation time and id of the last comment on a page.
+ */
+@Value
+public class CommentCursor {
+    CommentSort sort;
+    LocalDateTime created;
+    Long id;
+
+    public static CommentCursor after(CommentDto comment, CommentSort sort) {
+        return new CommentCursor(sort, comment.getCreated(), comment.getId());
+    }
+
+    public static CommentCursor decode(String token, CommentSort sort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            CommentSort cursorSort = CommentSort.valueOf(parts[0]);
+            if (parts.length == 3 && cursorSort == sort) {
+                return new CommentCursor(cursorSort, LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+            }
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor: " + token);
+        }
+        throw new BadRequestException(String.format("Cursor %s does not belong to sort %s", token, sort));
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((sort + "|" + created + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
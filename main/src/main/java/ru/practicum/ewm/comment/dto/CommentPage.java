@@ -0,0 +1,11 @@
+package ru.practicum.ewm.comment.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class CommentPage {
+    List<CommentDto> items;
+    String nextCursor;
+}
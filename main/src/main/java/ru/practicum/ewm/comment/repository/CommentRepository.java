@@ -5,13 +5,30 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.ewm.comment.model.Comment;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByEventId(Long eventId, Pageable pageable);
+    @Query("SELECT c FROM Comment AS c " +
+            "WHERE c.eventId.id = :eventId " +
+            "ORDER BY c.created, c.id")
+    List<Comment> findOldest(Long eventId, Pageable pageable);
+
+    // The separate bound on created lets idx_comments_event seek to the cursor instead of filtering the event's rows.
+    @Query("SELECT c FROM Comment AS c " +
+            "WHERE c.eventId.id = :eventId " +
+            "AND c.created >= :created AND (c.created > :created OR c.id > :id) " +
+            "ORDER BY c.created, c.id")
+    List<Comment> findOldestAfter(Long eventId, LocalDateTime created, Long id, Pageable pageable);
+
+    @Query("SELECT c FROM Comment AS c " +
+            "WHERE c.eventId.id = :eventId " +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<Comment> findNewest(Long eventId, Pageable pageable);
 
     @Query("SELECT c FROM Comment AS c " +
-            "JOIN c.eventId AS e " +
-            "WHERE e.id = ?1")
-    List<Comment> getCommentsByEventId(Long eventId);
-}
\ No newline at end of file
+            "WHERE c.eventId.id = :eventId " +
+            "AND c.created <= :created AND (c.created < :created OR c.id < :id) " +
+            "ORDER BY c.created DESC, c.id DESC")
+    List<Comment> findNewestBefore(Long eventId, LocalDateTime created, Long id, Pageable pageable);
+}
@@ -1,11 +1,10 @@
 package ru.practicum.ewm.comment.service;
 
 import ru.practicum.ewm.comment.dto.CommentDto;
+import ru.practicum.ewm.comment.dto.CommentPage;
 import ru.practicum.ewm.comment.dto.NewCommentDto;
 import ru.practicum.ewm.comment.enums.CommentSort;
 
-import java.util.List;
-
 public interface CommentService {
     CommentDto addComment(Long userId, Long eventId, NewCommentDto newCommentDto);
 
@@ -13,7 +12,7 @@ public interface CommentService {
 
     void deleteComment(Long commentId, Long userId);
 
-    List<CommentDto> getComments(Long eventId, CommentSort sort, Integer from, Integer size);
+    CommentPage getComments(Long eventId, CommentSort sort, String cursor, Integer from, Integer size);
 
     void deleteCommentByAdmin(Long commentId);
 }
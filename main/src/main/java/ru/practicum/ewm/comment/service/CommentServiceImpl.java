@@ -4,10 +4,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.comment.dto.CommentCursor;
 import ru.practicum.ewm.comment.dto.CommentDto;
+import ru.practicum.ewm.comment.dto.CommentPage;
 import ru.practicum.ewm.comment.dto.NewCommentDto;
 import ru.practicum.ewm.comment.enums.CommentSort;
 import ru.practicum.ewm.comment.mapper.CommentMapper;
@@ -16,6 +17,7 @@ import ru.practicum.ewm.comment.repository.CommentRepository;
 import ru.practicum.ewm.event.enums.State;
 import ru.practicum.ewm.event.model.Event;
 import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.event.service.EventDetailsCache;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.ForbiddenException;
 import ru.practicum.ewm.exception.ObjectNotFoundException;
@@ -37,9 +39,7 @@ public class CommentServiceImpl implements CommentService {
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final CommentRepository commentRepository;
-
-    public static final Sort SORT_BY_CREATED_ON_ASC = Sort.by(Sort.Direction.ASC, "created");
-    public static final Sort SORT_BY_CREATED_ON_DESC = Sort.by(Sort.Direction.DESC, "created");
+    private final EventDetailsCache eventDetailsCache;
 
     @Override
     @Transactional
@@ -68,6 +68,8 @@ public class CommentServiceImpl implements CommentService {
                 .build();
 
         Comment savedComment = commentRepository.save(comment);
+        eventRepository.addCommentsCount(eventId, 1);
+        eventDetailsCache.invalidate(eventId);
         return toCommentDto(savedComment);
     }
 
@@ -93,6 +95,7 @@ public class CommentServiceImpl implements CommentService {
         toUpdateComment.setText(newCommentDto.getText());
         toUpdateComment.setUpdated(LocalDateTime.now());
         Comment savedComment = commentRepository.save(toUpdateComment);
+        eventDetailsCache.invalidate(savedComment.getEventId().getId());
         return toCommentDto(savedComment);
     }
 
@@ -109,42 +112,47 @@ public class CommentServiceImpl implements CommentService {
         }
 
         commentRepository.delete(comment);
+        eventRepository.addCommentsCount(comment.getEventId().getId(), -1);
+        eventDetailsCache.invalidate(comment.getEventId().getId());
     }
 
     @Override
     @Transactional
     public void deleteCommentByAdmin(Long commentId) {
-        if (commentRepository.existsById(commentId)) {
-            commentRepository.deleteById(commentId);
-        } else {
-            throw new ObjectNotFoundException(String.format(
-                    "Comment with ID: %s not found", commentId
-            ));
-        }
+        Comment comment = commentRepository.findById(commentId)
+                .orElseThrow(() -> new ObjectNotFoundException(String.format(
+                        "Comment with ID: %s not found", commentId
+                )));
+
+        commentRepository.delete(comment);
+        eventRepository.addCommentsCount(comment.getEventId().getId(), -1);
+        eventDetailsCache.invalidate(comment.getEventId().getId());
     }
 
 
     @Override
     @Transactional(readOnly = true)
-    public List<CommentDto> getComments(Long eventId, CommentSort sort, Integer from, Integer size) {
-        Pageable pageable = PageRequest.of(from, size);
+    public CommentPage getComments(Long eventId, CommentSort sort, String cursor, Integer from, Integer size) {
         List<Comment> comments;
-
-        switch (sort) {
-            case ASC:
-                pageable = PageRequest.of(from, size, SORT_BY_CREATED_ON_ASC);
-                comments = commentRepository.findAllByEventId(eventId, pageable);
-                break;
-            case DESC:
-                pageable = PageRequest.of(from, size, SORT_BY_CREATED_ON_DESC);
-                comments = commentRepository.findAllByEventId(eventId, pageable);
-                break;
-            default:
-                comments = commentRepository.findAllByEventId(eventId, pageable);
+        if (cursor == null) {
+            Pageable pageable = PageRequest.of(from, size);
+            comments = sort == CommentSort.ASC
+                    ? commentRepository.findOldest(eventId, pageable)
+                    : commentRepository.findNewest(eventId, pageable);
+        } else {
+            CommentCursor after = CommentCursor.decode(cursor, sort);
+            Pageable pageable = PageRequest.of(0, size);
+            comments = sort == CommentSort.ASC
+                    ? commentRepository.findOldestAfter(eventId, after.getCreated(), after.getId(), pageable)
+                    : commentRepository.findNewestBefore(eventId, after.getCreated(), after.getId(), pageable);
         }
 
-        return comments.stream()
+        List<CommentDto> items = comments.stream()
                 .map(CommentMapper::toCommentDto)
                 .collect(Collectors.toList());
+        String nextCursor = items.size() < size
+                ? null
+                : CommentCursor.after(items.get(items.size() - 1), sort).encode();
+        return new CommentPage(items, nextCursor);
     }
 }
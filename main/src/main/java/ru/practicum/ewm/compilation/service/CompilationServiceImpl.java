@@ -10,15 +10,21 @@ import ru.practicum.ewm.compilation.dto.NewCompilationDto;
 import ru.practicum.ewm.compilation.dto.UpdateCompilationRequest;
 import ru.practicum.ewm.compilation.model.Compilation;
 import ru.practicum.ewm.compilation.repository.CompilationRepository;
+import ru.practicum.ewm.event.dto.EventShortDto;
 import ru.practicum.ewm.event.mapper.EventMapper;
 import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.EventSummary;
 import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.event.service.EventDtoAssembler;
 import ru.practicum.ewm.exception.ObjectNotFoundException;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.ewm.compilation.mapper.CompilationMapper.toCompilation;
@@ -30,6 +36,7 @@ public class CompilationServiceImpl implements CompilationService {
 
     private final CompilationRepository compilationRepository;
     private final EventRepository eventRepository;
+    private final EventDtoAssembler eventDtoAssembler;
 
     @Override
     @Transactional(readOnly = true)
@@ -37,10 +44,16 @@ public class CompilationServiceImpl implements CompilationService {
         Pageable pageable = PageRequest.of(from, size);
 
         List<Compilation> compilations = compilationRepository.findAllByPinned(pinned, pageable);
+        Map<Long, EventShortDto> events = eventDtoAssembler.toEventShortDtos(compilations.stream()
+                        .flatMap(c -> c.getEvents().stream())
+                        .collect(Collectors.toMap(Event::getId, EventMapper::toEventSummary, (a, b) -> a))
+                        .values())
+                .stream()
+                .collect(Collectors.toMap(EventShortDto::getId, Function.identity()));
 
         return compilations.stream()
                 .map(c -> toCompilationDto(c, c.getEvents().stream()
-                        .map(EventMapper::toEventShortDto)
+                        .map(event -> events.get(event.getId()))
                         .collect(Collectors.toList()))).collect(Collectors.toList());
     }
 
@@ -53,9 +66,7 @@ public class CompilationServiceImpl implements CompilationService {
             ));
         });
 
-        return toCompilationDto(compilation, compilation.getEvents().stream()
-                .map(EventMapper::toEventShortDto)
-                .collect(Collectors.toList()));
+        return toCompilationDto(compilation, eventDtoAssembler.toEventShortDtos(toEventSummaries(compilation.getEvents())));
     }
 
     @Override
@@ -71,9 +82,7 @@ public class CompilationServiceImpl implements CompilationService {
 
         Compilation savedCompilation = compilationRepository.save(compilation);
 
-        return toCompilationDto(savedCompilation, events.stream()
-                .map(EventMapper::toEventShortDto)
-                .collect(Collectors.toList()));
+        return toCompilationDto(savedCompilation, eventDtoAssembler.toEventShortDtos(toEventSummaries(events)));
     }
 
     @Override
@@ -113,8 +122,12 @@ public class CompilationServiceImpl implements CompilationService {
 
         Compilation savedCompilation = compilationRepository.save(compilation);
 
-        return toCompilationDto(savedCompilation, events.stream()
-                .map(EventMapper::toEventShortDto)
-                .collect(Collectors.toList()));
+        return toCompilationDto(savedCompilation, eventDtoAssembler.toEventShortDtos(toEventSummaries(events)));
+    }
+
+    private static List<EventSummary> toEventSummaries(Collection<Event> events) {
+        return events.stream()
+                .map(EventMapper::toEventSummary)
+                .collect(Collectors.toList());
     }
 }
@@ -3,6 +3,7 @@ package ru.practicum.ewm.controller;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.ewm.category.dto.CategoryDto;
@@ -14,6 +15,7 @@ import ru.practicum.ewm.compilation.dto.NewCompilationDto;
 import ru.practicum.ewm.compilation.dto.UpdateCompilationRequest;
 import ru.practicum.ewm.compilation.service.CompilationService;
 import ru.practicum.ewm.event.dto.EventFullDto;
+import ru.practicum.ewm.event.dto.EventPage;
 import ru.practicum.ewm.event.dto.UpdateEventAdminRequest;
 import ru.practicum.ewm.event.enums.State;
 import ru.practicum.ewm.event.service.EventService;
@@ -81,17 +83,24 @@ public class AdminController {
     }
 
     @GetMapping("/events")
-    public List<EventFullDto> getAdminEvents(@RequestParam(required = false) List<Long> users,
-                                             @RequestParam(required = false) List<State> states,
-                                             @RequestParam(required = false) List<Long> categories,
-                                             @RequestParam(value = "rangeStart", required = false)
-                                                 @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeStart,
-                                             @RequestParam(value = "rangeEnd", required = false)
-                                                 @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
-                                             @RequestParam(defaultValue = "0") @Min(0) Integer from,
-                                             @RequestParam(defaultValue = "10") @Min(1) Integer size) {
-
-        return eventService.getAdminEvents(users, states, categories, rangeStart, rangeEnd, from, size);
+    public ResponseEntity<List<EventFullDto>> getAdminEvents(@RequestParam(required = false) List<Long> users,
+                                                             @RequestParam(required = false) List<State> states,
+                                                             @RequestParam(required = false) List<Long> categories,
+                                                             @RequestParam(value = "rangeStart", required = false)
+                                                                 @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeStart,
+                                                             @RequestParam(value = "rangeEnd", required = false)
+                                                                 @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(defaultValue = "0") @Min(0) Integer from,
+                                                             @RequestParam(defaultValue = "10") @Min(1) Integer size) {
+
+        EventPage<EventFullDto> page = eventService.getAdminEvents(users, states, categories, rangeStart, rangeEnd,
+                cursor, from, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(EventPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @PatchMapping("/events/{eventId}")
@@ -2,6 +2,7 @@ package ru.practicum.ewm.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -9,11 +10,13 @@ import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.ewm.category.dto.CategoryDto;
 import ru.practicum.ewm.category.service.CategoryService;
 import ru.practicum.ewm.comment.dto.CommentDto;
+import ru.practicum.ewm.comment.dto.CommentPage;
 import ru.practicum.ewm.comment.enums.CommentSort;
 import ru.practicum.ewm.comment.service.CommentService;
 import ru.practicum.ewm.compilation.dto.CompilationDto;
 import ru.practicum.ewm.compilation.service.CompilationService;
 import ru.practicum.ewm.event.dto.EventFullDto;
+import ru.practicum.ewm.event.dto.EventPage;
 import ru.practicum.ewm.event.dto.EventShortDto;
 import ru.practicum.ewm.event.enums.EventSortType;
 import ru.practicum.ewm.event.service.EventService;
@@ -45,19 +48,26 @@ public class PublicController {
     }
 
     @GetMapping("/events")
-    public List<EventShortDto> getPublicEvents(@RequestParam(required = false) String text,
-                                               @RequestParam(required = false) List<Long> categories,
-                                               @RequestParam(required = false) Boolean paid,
-                                               @RequestParam(required = false)
-                                                   @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeStart,
-                                               @RequestParam(required = false)
-                                                   @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
-                                               @RequestParam(defaultValue = "false") Boolean onlyAvailable,
-                                               @RequestParam(defaultValue = "EVENT_DATE") EventSortType sort,
-                                               @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                               @RequestParam(defaultValue = "10") @Positive Integer size,
-                                               HttpServletRequest request) {
-        return eventService.getPublicEvents(text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, from, size, request);
+    public ResponseEntity<List<EventShortDto>> getPublicEvents(@RequestParam(required = false) String text,
+                                                               @RequestParam(required = false) List<Long> categories,
+                                                               @RequestParam(required = false) Boolean paid,
+                                                               @RequestParam(required = false)
+                                                                   @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeStart,
+                                                               @RequestParam(required = false)
+                                                                   @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
+                                                               @RequestParam(defaultValue = "false") Boolean onlyAvailable,
+                                                               @RequestParam(defaultValue = "EVENT_DATE") EventSortType sort,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                               @RequestParam(defaultValue = "10") @Positive Integer size,
+                                                               HttpServletRequest request) {
+        EventPage<EventShortDto> page = eventService.getPublicEvents(text, categories, paid, rangeStart, rangeEnd,
+                onlyAvailable, sort, cursor, from, size, request);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(EventPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 
     @GetMapping("/events/{eventId}")
@@ -77,11 +87,17 @@ public class PublicController {
         return compilationService.getCompilationById(compId);
     }
 
-    @GetMapping("/comments")
-    public List<CommentDto> getComments(@PathVariable Long eventId,
-                                        @RequestParam(required = false, defaultValue = "DESC") CommentSort sort,
-                                        @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-                                        @RequestParam(defaultValue = "10") @Positive Integer size) {
-        return commentService.getComments(eventId, sort, from, size);
+    @GetMapping("/events/{eventId}/comments")
+    public ResponseEntity<List<CommentDto>> getComments(@PathVariable Long eventId,
+                                                        @RequestParam(required = false, defaultValue = "DESC") CommentSort sort,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
+                                                        @RequestParam(defaultValue = "10") @Positive Integer size) {
+        CommentPage page = commentService.getComments(eventId, sort, cursor, from, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(EventPage.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 }
@@ -0,0 +1,60 @@
+package ru.practicum.ewm.event.dto;
+
+import lombok.Value;
+import ru.practicum.ewm.event.enums.EventSortType;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.EventSummary;
+import ru.practicum.ewm.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque position in an event listing: the sort key and id of the last event on a page.
+ */
+@Value
+public class EventCursor {
+    EventSortType sort;
+    LocalDateTime eventDate;
+    Integer views;
+    Long id;
+
+    public static EventCursor after(Event event, EventSortType sort) {
+        return after(event.getEventDate(), event.getViews(), event.getId(), sort);
+    }
+
+    public static EventCursor after(EventSummary event, EventSortType sort) {
+        return after(event.getEventDate(), event.getViews(), event.getId(), sort);
+    }
+
+    private static EventCursor after(LocalDateTime eventDate, Integer views, Long id, EventSortType sort) {
+        if (sort == EventSortType.VIEWS) {
+            return new EventCursor(sort, null, views != null ? views : 0, id);
+        }
+        return new EventCursor(EventSortType.EVENT_DATE, eventDate, null, id);
+    }
+
+    public static EventCursor decode(String token, EventSortType sort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+            EventSortType cursorSort = EventSortType.valueOf(parts[0]);
+            Long id = Long.parseLong(parts[2]);
+            if (parts.length == 3 && cursorSort == sort && cursorSort == EventSortType.VIEWS) {
+                return new EventCursor(cursorSort, null, Integer.parseInt(parts[1]), id);
+            }
+            if (parts.length == 3 && cursorSort == sort && cursorSort == EventSortType.EVENT_DATE) {
+                return new EventCursor(cursorSort, LocalDateTime.parse(parts[1]), null, id);
+            }
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor: " + token);
+        }
+        throw new BadRequestException(String.format("Cursor %s does not belong to sort %s", token, sort));
+    }
+
+    public String encode() {
+        String key = sort == EventSortType.VIEWS ? String.valueOf(views) : eventDate.toString();
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((sort + "|" + key + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
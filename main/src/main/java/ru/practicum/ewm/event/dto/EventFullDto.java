@@ -13,7 +13,7 @@ import java.util.List;
 
 @Getter
 @Setter
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class EventFullDto {
@@ -55,4 +55,8 @@ public class EventFullDto {
     private Integer views;
 
     private List<CommentDto> comments;
+
+    private Integer commentsCount;
+
+    private String commentsCursor;
 }
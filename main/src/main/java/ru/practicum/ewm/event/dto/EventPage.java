@@ -0,0 +1,13 @@
+package ru.practicum.ewm.event.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class EventPage<T> {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    List<T> items;
+    String nextCursor;
+}
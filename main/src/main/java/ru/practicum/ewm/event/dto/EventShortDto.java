@@ -19,6 +19,8 @@ public class EventShortDto {
 
     private Integer confirmedRequests;
 
+    private Integer commentsCount;
+
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime eventDate;
 
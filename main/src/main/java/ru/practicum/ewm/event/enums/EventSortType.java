@@ -2,5 +2,6 @@ package ru.practicum.ewm.event.enums;
 
 public enum EventSortType {
     EVENT_DATE,
-    VIEWS
+    VIEWS,
+    RELEVANCE
 }
@@ -1,13 +1,16 @@
 package ru.practicum.ewm.event.mapper;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.ewm.category.dto.CategoryDto;
 import ru.practicum.ewm.category.mapper.CategoryMapper;
 import ru.practicum.ewm.event.dto.EventFullDto;
 import ru.practicum.ewm.event.dto.EventShortDto;
 import ru.practicum.ewm.event.dto.NewEventDto;
 import ru.practicum.ewm.event.enums.State;
 import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.EventSummary;
 import ru.practicum.ewm.location.Location;
+import ru.practicum.ewm.user.dto.UserShortDto;
 import ru.practicum.ewm.user.mapper.UserMapper;
 
 import java.time.LocalDateTime;
@@ -15,29 +18,49 @@ import java.time.LocalDateTime;
 @UtilityClass
 public class EventMapper {
     public static EventShortDto toEventShortDto(Event event) {
+        return toEventShortDto(toEventSummary(event), CategoryMapper.toCategoryDto(event.getCategory()),
+                UserMapper.toUserShortDto(event.getInitiator()), event.getViews());
+    }
+
+    public static EventShortDto toEventShortDto(EventSummary event, CategoryDto category, UserShortDto initiator,
+                                                Integer views) {
         return EventShortDto.builder()
                 .id(event.getId())
                 .annotation(event.getAnnotation() != null ? event.getAnnotation() : "")
-                .category(CategoryMapper.toCategoryDto(event.getCategory()))
-                .confirmedRequests(event.getConfirmedRequests() != null ? event.getConfirmedRequests() : 0)
+                .category(category)
+                .confirmedRequests(event.getConfirmedRequests())
+                .commentsCount(event.getCommentsCount())
                 .eventDate(event.getEventDate())
-                .initiator(UserMapper.toUserShortDto(event.getInitiator()))
+                .initiator(initiator)
                 .paid(event.getPaid())
                 .title(event.getTitle())
-                .views(event.getViews())
+                .views(views)
                 .build();
     }
 
+    public static EventSummary toEventSummary(Event event) {
+        return new EventSummary(event.getId(), event.getAnnotation(), event.getCategory().getId(),
+                event.getInitiator().getId(), event.getConfirmedRequests(), event.getCommentsCount(),
+                event.getEventDate(), event.getPublishedOn(), event.getPaid(), event.getTitle(), event.getViews());
+    }
+
     public static EventFullDto toEventFullDto(Event event) {
+        return toEventFullDto(event, CategoryMapper.toCategoryDto(event.getCategory()),
+                UserMapper.toUserShortDto(event.getInitiator()), event.getViews());
+    }
+
+    public static EventFullDto toEventFullDto(Event event, CategoryDto category, UserShortDto initiator,
+                                              Integer views) {
         return EventFullDto.builder()
                 .id(event.getId())
                 .annotation(event.getAnnotation())
-                .category(CategoryMapper.toCategoryDto(event.getCategory()))
-                .confirmedRequests(event.getParticipants().size())
+                .category(category)
+                .confirmedRequests(event.getConfirmedRequests())
+                .commentsCount(event.getCommentsCount())
                 .createdOn(event.getCreatedOn())
                 .description(event.getDescription())
                 .eventDate(event.getEventDate())
-                .initiator(UserMapper.toUserShortDto(event.getInitiator()))
+                .initiator(initiator)
                 .location(new Location(event.getLocation().getLat(), event.getLocation().getLon()))
                 .paid(event.getPaid())
                 .participantLimit(event.getParticipantLimit())
@@ -45,7 +68,7 @@ public class EventMapper {
                 .requestModeration(event.getRequestModeration())
                 .state(event.getState())
                 .title(event.getTitle())
-                .views(event.getViews())
+                .views(views)
                 .build();
     }
 
@@ -61,6 +84,9 @@ public class EventMapper {
                 .requestModeration(newEventDto.getRequestModeration())
                 .state(State.PENDING)
                 .title(newEventDto.getTitle())
+                .confirmedRequests(0)
+                .commentsCount(0)
+                .views(0)
                 .build();
     }
 }
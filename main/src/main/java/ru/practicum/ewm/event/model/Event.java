@@ -2,7 +2,6 @@ package ru.practicum.ewm.event.model;
 
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.WhereJoinTable;
 import ru.practicum.ewm.category.model.Category;
 import ru.practicum.ewm.event.enums.State;
 import ru.practicum.ewm.location.Location;
@@ -10,8 +9,6 @@ import ru.practicum.ewm.user.model.User;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
 
 @Entity
 @Getter
@@ -20,7 +17,13 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "events")
+@NamedEntityGraph(name = Event.WITH_CATEGORY_AND_INITIATOR, attributeNodes = {
+        @NamedAttributeNode("category"),
+        @NamedAttributeNode("initiator")
+})
 public class Event {
+    public static final String WITH_CATEGORY_AND_INITIATOR = "Event.withCategoryAndInitiator";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -28,13 +31,16 @@ public class Event {
     @Column(name = "annotation")
     private String annotation;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
-    @Column(name = "confirmed_requests", nullable = false)
+    @Column(name = "confirmed_requests", nullable = false, updatable = false)
     private Integer confirmedRequests;
 
+    @Column(name = "comments_count", nullable = false, updatable = false)
+    private Integer commentsCount;
+
     @Column(name = "created_on")
     @CreationTimestamp
     private LocalDateTime createdOn;
@@ -45,7 +51,7 @@ public class Event {
     @Column(name = "event_date")
     private LocalDateTime eventDate;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "initiator_id")
     private User initiator;
 
@@ -71,12 +77,6 @@ public class Event {
     @Column(name = "title")
     private String title;
 
-    @WhereJoinTable(clause = "status='CONFIRMED'")
-    @ManyToMany(cascade = CascadeType.PERSIST, fetch = FetchType.LAZY)
-    @JoinTable(name = "requests",
-            joinColumns = @JoinColumn(name = "event_id"),
-            inverseJoinColumns = @JoinColumn(name = "requester_id"))
-    private Set<User> participants = new HashSet<>();
-
+    @Column(name = "views", updatable = false)
     private Integer views;
 }
@@ -0,0 +1,23 @@
+package ru.practicum.ewm.event.model;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns of an event needed for short listings, selected without the description and location.
+ */
+@Value
+public class EventSummary {
+    Long id;
+    String annotation;
+    Long categoryId;
+    Long initiatorId;
+    Integer confirmedRequests;
+    Integer commentsCount;
+    LocalDateTime eventDate;
+    LocalDateTime publishedOn;
+    Boolean paid;
+    String title;
+    Integer views;
+}
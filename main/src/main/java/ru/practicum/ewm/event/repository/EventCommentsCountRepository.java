@@ -0,0 +1,26 @@
+package ru.practicum.ewm.event.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class EventCommentsCountRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<Long> lockBatch(long afterId, int size) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM events WHERE id > ? ORDER BY id LIMIT ? FOR UPDATE", Long.class, afterId, size);
+    }
+
+    public int repair(long fromId, long toId) {
+        return jdbcTemplate.update("UPDATE events AS e " +
+                "SET comments_count = (SELECT COUNT(*) FROM comments AS c WHERE c.event_id = e.id) " +
+                "WHERE e.id BETWEEN ? AND ? " +
+                "AND e.comments_count <> (SELECT COUNT(*) FROM comments AS c WHERE c.event_id = e.id)", fromId, toId);
+    }
+}
@@ -1,11 +1,16 @@
 package ru.practicum.ewm.event.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.ewm.event.enums.State;
 import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.EventSummary;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
@@ -14,37 +19,87 @@ import java.util.Set;
 
 public interface EventRepository extends JpaRepository<Event, Long> {
 
-    List<Event> findEventsByInitiatorId(Long userId, Pageable pageable);
+    String SELECT_SUMMARY = "SELECT new ru.practicum.ewm.event.model.EventSummary(" +
+            "e.id, e.annotation, e.category.id, e.initiator.id, e.confirmedRequests, e.commentsCount, " +
+            "e.eventDate, e.publishedOn, e.paid, e.title, e.views) ";
+
+    @Query(SELECT_SUMMARY +
+            "FROM Event AS e " +
+            "WHERE e.initiator.id = :userId " +
+            "ORDER BY e.id")
+    List<EventSummary> findSummariesByInitiatorId(Long userId, Pageable pageable);
 
     List<Event> findAllByCategoryId(Long catId);
 
+    @Query("SELECT e.id FROM Event AS e WHERE e.initiator.id = :userId")
+    List<Long> findIdsByInitiatorId(Long userId);
+
+    @EntityGraph(Event.WITH_CATEGORY_AND_INITIATOR)
     Optional<Event> findEventByIdAndInitiator_Id(Long id, Long userId);
 
-    @Query("SELECT e FROM Event AS e " +
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event AS e WHERE e.id = :id AND e.initiator.id = :userId")
+    Optional<Event> findForUpdateByIdAndInitiatorId(Long id, Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Event AS e WHERE e.id = :id")
+    Optional<Event> findForUpdateById(Long id);
+
+    @Query(SELECT_SUMMARY +
+            "FROM Event AS e " +
             "JOIN e.category AS c " +
-            "WHERE ((:text) IS NULL OR lower(e.annotation) LIKE lower(concat('%', :text, '%')) " +
-            "OR lower(e.title) LIKE lower(concat('%', :text, '%'))) " +
-            "AND (:categories IS NULL OR c.id IN :categories) " +
+            "WHERE (:categories IS NULL OR c.id IN :categories) " +
             "AND e.paid = :paid " +
             "AND e.eventDate > :rangeStart " +
             "AND (cast(:rangeEnd as date) IS NULL OR e.eventDate < :rangeEnd) " +
             "AND e.state = 'PUBLISHED' " +
-            "ORDER BY e.eventDate")
-    List<Event> findPublicSortByDate(String text, List<Long> categories, Boolean paid,
-                                     LocalDateTime rangeStart, LocalDateTime rangeEnd, Pageable pageable);
+            "AND (:onlyAvailable = FALSE OR e.participantLimit = 0 OR e.confirmedRequests < e.participantLimit) " +
+            "ORDER BY e.eventDate, e.id")
+    List<EventSummary> findPublicSortByDate(List<Long> categories, Boolean paid, Boolean onlyAvailable,
+                                            LocalDateTime rangeStart, LocalDateTime rangeEnd, Pageable pageable);
 
-    @Query("SELECT e FROM Event AS e " +
+    @Query(SELECT_SUMMARY +
+            "FROM Event AS e " +
+            "JOIN e.category AS c " +
+            "WHERE (:categories IS NULL OR c.id IN :categories) " +
+            "AND e.paid = :paid " +
+            "AND e.eventDate > :rangeStart " +
+            "AND (cast(:rangeEnd as date) IS NULL OR e.eventDate < :rangeEnd) " +
+            "AND e.state = 'PUBLISHED' " +
+            "AND (:onlyAvailable = FALSE OR e.participantLimit = 0 OR e.confirmedRequests < e.participantLimit) " +
+            "ORDER BY e.views DESC, e.id")
+    List<EventSummary> findPublicSortByViews(List<Long> categories, Boolean paid, Boolean onlyAvailable,
+                                             LocalDateTime rangeStart, LocalDateTime rangeEnd, Pageable pageable);
+
+    @Query(SELECT_SUMMARY +
+            "FROM Event AS e " +
+            "JOIN e.category AS c " +
+            "WHERE (:categories IS NULL OR c.id IN :categories) " +
+            "AND e.paid = :paid " +
+            "AND e.eventDate > :rangeStart " +
+            "AND (cast(:rangeEnd as date) IS NULL OR e.eventDate < :rangeEnd) " +
+            "AND e.state = 'PUBLISHED' " +
+            "AND (:onlyAvailable = FALSE OR e.participantLimit = 0 OR e.confirmedRequests < e.participantLimit) " +
+            "AND (e.eventDate > :cursorDate OR (e.eventDate = :cursorDate AND e.id > :cursorId)) " +
+            "ORDER BY e.eventDate, e.id")
+    List<EventSummary> findPublicSortByDateAfter(List<Long> categories, Boolean paid, Boolean onlyAvailable,
+                                                 LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                 LocalDateTime cursorDate, Long cursorId, Pageable pageable);
+
+    @Query(SELECT_SUMMARY +
+            "FROM Event AS e " +
             "JOIN e.category AS c " +
-            "WHERE ((:text) IS NULL OR lower(e.annotation) LIKE lower(concat('%', :text, '%')) " +
-            "OR lower(e.title) LIKE lower(concat('%', :text, '%'))) " +
-            "AND (:categories IS NULL OR c.id IN :categories) " +
+            "WHERE (:categories IS NULL OR c.id IN :categories) " +
             "AND e.paid = :paid " +
             "AND e.eventDate > :rangeStart " +
             "AND (cast(:rangeEnd as date) IS NULL OR e.eventDate < :rangeEnd) " +
             "AND e.state = 'PUBLISHED' " +
-            "ORDER BY e.views DESC")
-    List<Event> findPublicSortByViews(String text, List<Long> categories, Boolean paid,
-                                      LocalDateTime rangeStart, LocalDateTime rangeEnd, Pageable pageable);
+            "AND (:onlyAvailable = FALSE OR e.participantLimit = 0 OR e.confirmedRequests < e.participantLimit) " +
+            "AND (e.views < :cursorViews OR (e.views = :cursorViews AND e.id > :cursorId)) " +
+            "ORDER BY e.views DESC, e.id")
+    List<EventSummary> findPublicSortByViewsAfter(List<Long> categories, Boolean paid, Boolean onlyAvailable,
+                                                  LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                  Integer cursorViews, Long cursorId, Pageable pageable);
 
     @Query("SELECT e FROM Event AS e " +
             "JOIN e.category AS c " +
@@ -53,11 +108,45 @@ public interface EventRepository extends JpaRepository<Event, Long> {
             "AND ((:states) IS NULL OR e.state IN :states) " +
             "AND ((:categories) IS NULL OR c.id IN :categories) " +
             "AND e.eventDate > :rangeStart " +
-            "AND (cast(:rangeEnd as date) IS NULL OR e.eventDate < :rangeEnd)")
+            "AND (cast(:rangeEnd as date) IS NULL OR e.eventDate < :rangeEnd) " +
+            "ORDER BY e.eventDate, e.id")
     List<Event> findAdminEvents(List<Long> users, List<State> states, List<Long> categories,
                                 LocalDateTime rangeStart, LocalDateTime rangeEnd, Pageable pageable);
 
+    @Query("SELECT e FROM Event AS e " +
+            "JOIN e.category AS c " +
+            "JOIN e.initiator AS u " +
+            "WHERE ((:users) IS NULL OR u.id IN :users) " +
+            "AND ((:states) IS NULL OR e.state IN :states) " +
+            "AND ((:categories) IS NULL OR c.id IN :categories) " +
+            "AND e.eventDate > :rangeStart " +
+            "AND (cast(:rangeEnd as date) IS NULL OR e.eventDate < :rangeEnd) " +
+            "AND (e.eventDate > :cursorDate OR (e.eventDate = :cursorDate AND e.id > :cursorId)) " +
+            "ORDER BY e.eventDate, e.id")
+    List<Event> findAdminEventsAfter(List<Long> users, List<State> states, List<Long> categories,
+                                     LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                     LocalDateTime cursorDate, Long cursorId, Pageable pageable);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event AS e SET e.confirmedRequests = e.confirmedRequests + :delta WHERE e.id = :eventId")
+    void addConfirmedRequests(Long eventId, int delta);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event AS e SET e.commentsCount = e.commentsCount + :delta WHERE e.id = :eventId")
+    void addCommentsCount(Long eventId, int delta);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Event AS e SET e.confirmedRequests = e.confirmedRequests + :count " +
+            "WHERE e.id = :eventId " +
+            "AND (e.participantLimit = 0 OR e.confirmedRequests + :count <= e.participantLimit)")
+    int reserveConfirmedRequests(Long eventId, int count);
+
     Event findEventByIdAndAndState(Long eventId, State state);
 
     Set<Event> getByIdIn(Collection<Long> ids);
+
+    @Query(SELECT_SUMMARY +
+            "FROM Event AS e " +
+            "WHERE e.id IN :ids")
+    List<EventSummary> findSummariesByIdIn(Collection<Long> ids);
 }
@@ -0,0 +1,30 @@
+package ru.practicum.ewm.event.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Repository
+@RequiredArgsConstructor
+public class EventViewCountRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void addViews(Map<Long, Long> deltas) {
+        List<Object[]> args = deltas.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate("UPDATE events SET views = COALESCE(views, 0) + ? WHERE id = ?", args);
+    }
+
+    public void setViews(Map<Long, Integer> views) {
+        List<Object[]> args = views.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate("UPDATE events SET views = ? WHERE id = ?", args);
+    }
+}
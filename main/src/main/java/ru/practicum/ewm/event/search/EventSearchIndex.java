@@ -0,0 +1,22 @@
+package ru.practicum.ewm.event.search;
+
+import ru.practicum.ewm.event.model.Event;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EventSearchIndex {
+
+    /**
+     * Makes the event's current title and annotation searchable once the surrounding transaction
+     * commits, or drops the event if it is not published.
+     */
+    void index(Event event);
+
+    /**
+     * Drops the events once the surrounding transaction commits.
+     */
+    void remove(Collection<Long> eventIds);
+
+    List<Long> search(EventSearchRequest request);
+}
@@ -0,0 +1,24 @@
+package ru.practicum.ewm.event.search;
+
+import lombok.Builder;
+import lombok.Value;
+import ru.practicum.ewm.event.dto.EventCursor;
+import ru.practicum.ewm.event.enums.EventSortType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Value
+@Builder
+public class EventSearchRequest {
+    String text;
+    List<Long> categories;
+    Boolean paid;
+    boolean onlyAvailable;
+    LocalDateTime rangeStart;
+    LocalDateTime rangeEnd;
+    EventSortType sort;
+    EventCursor cursor;
+    int offset;
+    int limit;
+}
@@ -0,0 +1,58 @@
+package ru.practicum.ewm.event.search;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import ru.practicum.ewm.event.dto.EventCursor;
+import ru.practicum.ewm.event.enums.EventSortType;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+@UtilityClass
+class EventSearchSql {
+
+    static List<String> tokenize(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    static String filters(EventSearchRequest request, MapSqlParameterSource params) {
+        StringBuilder sql = new StringBuilder("e.state = 'PUBLISHED' AND e.event_date > :rangeStart");
+        params.addValue("rangeStart", request.getRangeStart() != null ? request.getRangeStart() : LocalDateTime.now());
+        if (request.getRangeEnd() != null) {
+            sql.append(" AND e.event_date < :rangeEnd");
+            params.addValue("rangeEnd", request.getRangeEnd());
+        }
+        if (request.getCategories() != null && !request.getCategories().isEmpty()) {
+            sql.append(" AND e.category_id IN (:categories)");
+            params.addValue("categories", request.getCategories());
+        }
+        if (request.getPaid() != null) {
+            sql.append(" AND e.paid = :paid");
+            params.addValue("paid", request.getPaid());
+        }
+        if (request.isOnlyAvailable()) {
+            sql.append(" AND (e.participant_limit = 0 OR e.confirmed_requests < e.participant_limit)");
+        }
+        EventCursor cursor = request.getCursor();
+        if (cursor != null && cursor.getSort() == EventSortType.VIEWS) {
+            sql.append(" AND (e.views < :cursorViews OR (e.views = :cursorViews AND e.id > :cursorId))");
+            params.addValue("cursorViews", cursor.getViews()).addValue("cursorId", cursor.getId());
+        } else if (cursor != null) {
+            sql.append(" AND (e.event_date > :cursorDate OR (e.event_date = :cursorDate AND e.id > :cursorId))");
+            params.addValue("cursorDate", cursor.getEventDate()).addValue("cursorId", cursor.getId());
+        }
+        return sql.toString();
+    }
+
+    static String order(EventSortType sort) {
+        if (sort == EventSortType.VIEWS) {
+            return "e.views DESC, e.id";
+        }
+        return "e.event_date, e.id";
+    }
+}
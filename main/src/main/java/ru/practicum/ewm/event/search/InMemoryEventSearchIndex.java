@@ -0,0 +1,234 @@
+package ru.practicum.ewm.event.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.event.enums.EventSortType;
+import ru.practicum.ewm.event.enums.State;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.util.AfterCommit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+/**
+ * Inverted index over event titles and annotations kept in memory, for databases without
+ * full-text search. Words match as prefixes, all query words must match, and relevance is
+ * tf-idf with title words weighted above annotation words. Only published events are kept, and
+ * changes are applied after their transaction commits so a rollback never leaves stale terms.
+ * Relevance pages are cut from the best-scored candidates, widening the candidate set only when the
+ * SQL filters reject too many of them; date and view pages of common words walk the SQL order instead
+ * of binding every match.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "events.search.engine", havingValue = "memory")
+public class InMemoryEventSearchIndex implements EventSearchIndex {
+
+    private static final float TITLE_WEIGHT = 2.0f;
+    private static final float ANNOTATION_WEIGHT = 1.0f;
+    private static final int MIN_CANDIDATES = 200;
+    private static final int CANDIDATES_PER_RESULT = 4;
+    private static final int SCAN_CHUNK = 1_000;
+    private static final int MAX_BOUND_IDS = 10_000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NavigableMap<String, Map<Long, Float>> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, Map<String, Float>> documents = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        jdbcTemplate.query("SELECT id, title, annotation FROM events WHERE state = 'PUBLISHED'", rs -> {
+            index(rs.getLong("id"), rs.getString("title"), rs.getString("annotation"));
+        });
+    }
+
+    @Override
+    public void index(Event event) {
+        Long eventId = event.getId();
+        if (event.getState() != State.PUBLISHED) {
+            AfterCommit.run(() -> remove(eventId));
+            return;
+        }
+        String title = event.getTitle();
+        String annotation = event.getAnnotation();
+        AfterCommit.run(() -> index(eventId, title, annotation));
+    }
+
+    @Override
+    public void remove(Collection<Long> eventIds) {
+        List<Long> ids = List.copyOf(eventIds);
+        AfterCommit.run(() -> ids.forEach(this::remove));
+    }
+
+    boolean contains(Long eventId) {
+        return documents.containsKey(eventId);
+    }
+
+    @Override
+    public List<Long> search(EventSearchRequest request) {
+        Map<Long, Double> scores = score(EventSearchSql.tokenize(request.getText()).stream()
+                .distinct()
+                .collect(Collectors.toList()));
+        if (scores.isEmpty()) {
+            return List.of();
+        }
+
+        if (request.getSort() == EventSortType.RELEVANCE) {
+            return searchByRelevance(request, scores);
+        }
+        int wanted = request.getOffset() + request.getLimit();
+        // Binding the matches costs their count; walking the event order costs about wanted / selectivity rows.
+        if (scores.size() > MAX_BOUND_IDS || (long) scores.size() * scores.size() > (long) wanted * documents.size()) {
+            return scanInOrder(request, scores);
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = filterSql(request, scores.keySet(), params) +
+                " ORDER BY " + EventSearchSql.order(request.getSort()) + " LIMIT :limit OFFSET :offset";
+        params.addValue("limit", request.getLimit()).addValue("offset", request.getOffset());
+        return jdbcTemplate.queryForList(sql, params, Long.class);
+    }
+
+    /**
+     * Reads filtered events in the requested order, a chunk at a time, and keeps those matching the text,
+     * so words found in a large share of events never turn into a huge id list.
+     */
+    private List<Long> scanInOrder(EventSearchRequest request, Map<Long, Double> scores) {
+        int wanted = request.getOffset() + request.getLimit();
+        MapSqlParameterSource params = new MapSqlParameterSource().addValue("chunk", SCAN_CHUNK);
+        String sql = "SELECT e.id FROM events e WHERE " + EventSearchSql.filters(request, params) +
+                " ORDER BY " + EventSearchSql.order(request.getSort()) + " LIMIT :chunk OFFSET :scanned";
+        List<Long> matched = new ArrayList<>();
+        for (int scanned = 0; matched.size() < wanted; scanned += SCAN_CHUNK) {
+            List<Long> chunk = jdbcTemplate.queryForList(sql, params.addValue("scanned", scanned), Long.class);
+            chunk.stream()
+                    .filter(scores::containsKey)
+                    .forEach(matched::add);
+            if (chunk.size() < SCAN_CHUNK) {
+                break;
+            }
+        }
+        return matched.stream()
+                .skip(request.getOffset())
+                .limit(request.getLimit())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Filters the best-scored candidates in SQL and doubles the candidate count until the requested
+     * page is full or every match has been filtered, so a page costs a bounded id list per query.
+     */
+    private List<Long> searchByRelevance(EventSearchRequest request, Map<Long, Double> scores) {
+        Comparator<Long> byScore = Comparator.comparing((Long id) -> scores.get(id)).reversed()
+                .thenComparing(id -> id);
+        int wanted = request.getOffset() + request.getLimit();
+        List<Long> matched = new ArrayList<>();
+        int filtered = 0;
+        int candidates = Math.max(wanted * CANDIDATES_PER_RESULT, MIN_CANDIDATES);
+        while (matched.size() < wanted && filtered < scores.size()) {
+            List<Long> top = top(scores.keySet(), byScore, candidates);
+            for (int from = filtered; from < top.size() && matched.size() < wanted; from += MAX_BOUND_IDS) {
+                List<Long> batch = top.subList(from, Math.min(from + MAX_BOUND_IDS, top.size()));
+                MapSqlParameterSource params = new MapSqlParameterSource();
+                Set<Long> passed = new HashSet<>(jdbcTemplate.queryForList(filterSql(request, batch, params), params,
+                        Long.class));
+                batch.stream()
+                        .filter(passed::contains)
+                        .forEach(matched::add);
+            }
+            filtered = top.size();
+            candidates *= 2;
+        }
+        return matched.stream()
+                .skip(request.getOffset())
+                .limit(request.getLimit())
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> top(Collection<Long> ids, Comparator<Long> order, int count) {
+        if (ids.size() <= count) {
+            return ids.stream().sorted(order).collect(Collectors.toList());
+        }
+        PriorityQueue<Long> worstFirst = new PriorityQueue<>(count + 1, order.reversed());
+        for (Long id : ids) {
+            worstFirst.add(id);
+            if (worstFirst.size() > count) {
+                worstFirst.poll();
+            }
+        }
+        List<Long> top = new ArrayList<>(worstFirst);
+        top.sort(order);
+        return top;
+    }
+
+    private static String filterSql(EventSearchRequest request, Collection<Long> ids, MapSqlParameterSource params) {
+        params.addValue("ids", ids.toArray(new Long[0]));
+        return "SELECT e.id FROM events e WHERE e.id = ANY(:ids) AND " + EventSearchSql.filters(request, params);
+    }
+
+    private synchronized void index(Long eventId, String title, String annotation) {
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, title, TITLE_WEIGHT);
+        addTerms(terms, annotation, ANNOTATION_WEIGHT);
+
+        removePostings(eventId, documents.put(eventId, terms));
+        terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new ConcurrentHashMap<>())
+                .put(eventId, weight));
+    }
+
+    private synchronized void remove(Long eventId) {
+        removePostings(eventId, documents.remove(eventId));
+    }
+
+    private void removePostings(Long eventId, Map<String, Float> terms) {
+        if (terms != null) {
+            terms.keySet().forEach(term -> postings.computeIfPresent(term, (t, docs) -> {
+                docs.remove(eventId);
+                return docs.isEmpty() ? null : docs;
+            }));
+        }
+    }
+
+    private void addTerms(Map<String, Float> terms, String text, float weight) {
+        if (text != null) {
+            EventSearchSql.tokenize(text).forEach(term -> terms.merge(term, weight, Float::sum));
+        }
+    }
+
+    private Map<Long, Double> score(List<String> tokens) {
+        Map<Long, Double> scores = null;
+        int total = Math.max(documents.size(), 1);
+        for (String token : tokens) {
+            Map<Long, Double> tokenScores = new HashMap<>();
+            postings.subMap(token, true, token + Character.MAX_VALUE, true).values().forEach(docs -> {
+                double idf = Math.log(1.0 + (double) total / docs.size());
+                docs.forEach((eventId, weight) -> tokenScores.merge(eventId, weight * idf, Double::sum));
+            });
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((eventId, score) -> score + tokenScores.get(eventId));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores != null ? scores : Map.of();
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.ewm.event.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.event.enums.EventSortType;
+import ru.practicum.ewm.event.model.Event;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Searches the generated events.search_vector column (GIN indexed, see schema-postgresql.sql),
+ * matching every query word as a prefix and ranking by ts_rank. The column is maintained by the
+ * database in the same transaction as the row, so there is nothing to index or remove here.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "events.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresEventSearchIndex implements EventSearchIndex {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public void index(Event event) {
+    }
+
+    @Override
+    public void remove(Collection<Long> eventIds) {
+    }
+
+    @Override
+    public List<Long> search(EventSearchRequest request) {
+        List<String> tokens = EventSearchSql.tokenize(request.getText()).stream()
+                .distinct()
+                .collect(Collectors.toList());
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", tokens.stream().map(token -> token + ":*").collect(Collectors.joining(" & ")))
+                .addValue("limit", request.getLimit())
+                .addValue("offset", request.getOffset());
+        String order = request.getSort() == EventSortType.RELEVANCE
+                ? "ts_rank(e.search_vector, q.query) DESC, e.id"
+                : EventSearchSql.order(request.getSort());
+        String sql = "SELECT e.id FROM events e, to_tsquery('simple', :query) AS q(query) " +
+                "WHERE e.search_vector @@ q.query AND " + EventSearchSql.filters(request, params) + " " +
+                "ORDER BY " + order + " LIMIT :limit OFFSET :offset";
+        return jdbcTemplate.queryForList(sql, params, Long.class);
+    }
+}
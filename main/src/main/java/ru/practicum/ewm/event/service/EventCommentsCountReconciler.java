@@ -0,0 +1,61 @@
+package ru.practicum.ewm.event.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.event.repository.EventCommentsCountRepository;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Periodically recomputes events.comments_count from the comments table in id-ordered batches.
+ * Each batch locks its event rows before counting, so concurrent comment writes cannot slip
+ * between the count and the update.
+ */
+@Slf4j
+@Component
+public class EventCommentsCountReconciler {
+
+    private final EventCommentsCountRepository eventCommentsCountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final EventDetailsCache eventDetailsCache;
+    private final int batchSize;
+
+    public EventCommentsCountReconciler(EventCommentsCountRepository eventCommentsCountRepository,
+                                        TransactionTemplate transactionTemplate,
+                                        EventDetailsCache eventDetailsCache,
+                                        @Value("${events.comments-count.reconcile-batch-size:500}") int batchSize) {
+        this.eventCommentsCountRepository = eventCommentsCountRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventDetailsCache = eventDetailsCache;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${events.comments-count.reconcile-interval-ms:3600000}",
+            fixedDelayString = "${events.comments-count.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        AtomicInteger repaired = new AtomicInteger();
+        long afterId = 0;
+        while (true) {
+            long from = afterId;
+            List<Long> ids = transactionTemplate.execute(status -> {
+                List<Long> batch = eventCommentsCountRepository.lockBatch(from, batchSize);
+                if (!batch.isEmpty()) {
+                    repaired.addAndGet(eventCommentsCountRepository.repair(batch.get(0), batch.get(batch.size() - 1)));
+                }
+                return batch;
+            });
+            if (ids == null || ids.size() < batchSize) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+        }
+        if (repaired.get() > 0) {
+            log.info("Repaired comments_count for {} events", repaired.get());
+            eventDetailsCache.invalidateAll();
+        }
+    }
+}
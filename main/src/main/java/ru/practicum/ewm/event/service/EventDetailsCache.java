@@ -0,0 +1,48 @@
+package ru.practicum.ewm.event.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.event.dto.EventFullDto;
+import ru.practicum.ewm.util.AfterCommit;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Assembled public event pages, without live view counts. Invalidation is repeated after commit
+ * so a reader cannot re-cache the old state while the changing transaction is still open.
+ */
+@Component
+public class EventDetailsCache {
+
+    private final Cache<Long, EventFullDto> cache;
+
+    public EventDetailsCache(MeterRegistry meterRegistry,
+                             @Value("${events.details-cache.max-size:10000}") long maxSize,
+                             @Value("${events.details-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "eventDetails");
+    }
+
+    public EventFullDto get(Long eventId, Function<Long, EventFullDto> loader) {
+        return cache.get(eventId, loader);
+    }
+
+    public void invalidate(Long eventId) {
+        cache.invalidate(eventId);
+        AfterCommit.run(() -> cache.invalidate(eventId));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        AfterCommit.run(cache::invalidateAll);
+    }
+}
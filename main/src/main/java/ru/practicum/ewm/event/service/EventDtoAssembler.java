@@ -0,0 +1,94 @@
+package ru.practicum.ewm.event.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.category.dto.CategoryDto;
+import ru.practicum.ewm.category.mapper.CategoryMapper;
+import ru.practicum.ewm.category.service.CategoryCache;
+import ru.practicum.ewm.event.dto.EventFullDto;
+import ru.practicum.ewm.event.dto.EventShortDto;
+import ru.practicum.ewm.event.mapper.EventMapper;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.EventSummary;
+import ru.practicum.ewm.exception.ObjectNotFoundException;
+import ru.practicum.ewm.user.dto.UserShortDto;
+import ru.practicum.ewm.user.mapper.UserMapper;
+import ru.practicum.ewm.user.service.UserShortCache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Maps pages of events to DTOs, taking categories and initiators from the near-caches
+ * and views from the stats server instead of loading them per event.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventDtoAssembler {
+
+    private final CategoryCache categoryCache;
+    private final UserShortCache userShortCache;
+    private final EventViewsProvider eventViewsProvider;
+
+    public List<EventShortDto> toEventShortDtos(Collection<EventSummary> events) {
+        Map<Long, Integer> views = eventViewsProvider.getViews(events);
+        Map<Long, UserShortDto> initiators = userShortCache.getAll(events.stream()
+                .map(EventSummary::getInitiatorId)
+                .collect(Collectors.toList()));
+        return events.stream()
+                .map(event -> EventMapper.toEventShortDto(event, getCategory(event.getCategoryId()),
+                        getInitiator(event.getInitiatorId(), initiators), views.get(event.getId())))
+                .collect(Collectors.toList());
+    }
+
+    public List<EventFullDto> toEventFullDtos(Collection<Event> events) {
+        Map<Long, Integer> views = eventViewsProvider.getViews(events.stream()
+                .map(EventMapper::toEventSummary)
+                .collect(Collectors.toList()));
+        Map<Long, UserShortDto> initiators = getInitiators(events);
+        return events.stream()
+                .map(event -> EventMapper.toEventFullDto(event, getCategory(event),
+                        getInitiator(event, initiators), views.get(event.getId())))
+                .collect(Collectors.toList());
+    }
+
+    public EventFullDto toEventFullDto(Event event) {
+        return EventMapper.toEventFullDto(event, getCategory(event),
+                getInitiator(event, getInitiators(List.of(event))), event.getViews());
+    }
+
+    private Map<Long, UserShortDto> getInitiators(Collection<Event> events) {
+        return userShortCache.getAll(events.stream()
+                .map(event -> event.getInitiator().getId())
+                .collect(Collectors.toList()));
+    }
+
+    private CategoryDto getCategory(Event event) {
+        return categoryCache.find(event.getCategory().getId())
+                .orElseGet(() -> CategoryMapper.toCategoryDto(event.getCategory()));
+    }
+
+    private CategoryDto getCategory(Long catId) {
+        return categoryCache.find(catId)
+                .orElseThrow(() -> new ObjectNotFoundException(String.format(
+                        "Category with ID: %s was not found", catId
+                )));
+    }
+
+    private UserShortDto getInitiator(Event event, Map<Long, UserShortDto> initiators) {
+        UserShortDto initiator = initiators.get(event.getInitiator().getId());
+        return initiator != null ? initiator : UserMapper.toUserShortDto(event.getInitiator());
+    }
+
+    private UserShortDto getInitiator(Long userId, Map<Long, UserShortDto> initiators) {
+        UserShortDto initiator = initiators.get(userId);
+        if (initiator == null) {
+            throw new ObjectNotFoundException(String.format(
+                    "User with ID: %s was not found", userId
+            ));
+        }
+        return initiator;
+    }
+}
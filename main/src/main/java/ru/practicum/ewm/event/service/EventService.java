@@ -18,12 +18,14 @@ public interface EventService {
 
     EventFullDto updateEventByUser(Long userId, Long eventId, UpdateEventUserRequest updateEventUserRequest);
 
-    List<EventShortDto> getPublicEvents(String text, List<Long> categories, Boolean paid, LocalDateTime rangeStart,
-                                        LocalDateTime rangeEnd, Boolean onlyAvailable, EventSortType sort,
-                                        Integer from, Integer size, HttpServletRequest request);
-
-    List<EventFullDto> getAdminEvents(List<Long> users, List<State> states, List<Long> categories,
-                                      LocalDateTime rangeStart, LocalDateTime rangeEnd, Integer from, Integer size);
+    EventPage<EventShortDto> getPublicEvents(String text, List<Long> categories, Boolean paid,
+                                             LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                             Boolean onlyAvailable, EventSortType sort, String cursor,
+                                             Integer from, Integer size, HttpServletRequest request);
+
+    EventPage<EventFullDto> getAdminEvents(List<Long> users, List<State> states, List<Long> categories,
+                                           LocalDateTime rangeStart, LocalDateTime rangeEnd, String cursor,
+                                           Integer from, Integer size);
 
     EventFullDto updateEventByAdmin(Long eventId, UpdateEventAdminRequest updateEventAdminRequest);
 
@@ -1,13 +1,16 @@
 package ru.practicum.ewm.event.service;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.category.model.Category;
 import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.comment.dto.CommentCursor;
 import ru.practicum.ewm.comment.dto.CommentDto;
+import ru.practicum.ewm.comment.enums.CommentSort;
 import ru.practicum.ewm.comment.mapper.CommentMapper;
 import ru.practicum.ewm.comment.repository.CommentRepository;
 import ru.practicum.ewm.event.dto.*;
@@ -16,12 +19,15 @@ import ru.practicum.ewm.event.enums.State;
 import ru.practicum.ewm.event.enums.StateAction;
 import ru.practicum.ewm.event.mapper.EventMapper;
 import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.EventSummary;
 import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.event.search.EventSearchIndex;
+import ru.practicum.ewm.event.search.EventSearchRequest;
 import ru.practicum.ewm.exception.BadRequestException;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.ObjectNotFoundException;
 import ru.practicum.ewm.exception.ValidationException;
-import ru.practicum.ewm.stats.client.StatsClient;
+import ru.practicum.ewm.stats.client.StatsHitRecorder;
 import ru.practicum.ewm.stats.dto.EndpointHitDto;
 import ru.practicum.ewm.user.model.User;
 import ru.practicum.ewm.user.repository.UserRepository;
@@ -29,9 +35,10 @@ import ru.practicum.ewm.user.repository.UserRepository;
 import javax.servlet.http.HttpServletRequest;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -42,7 +49,15 @@ public class EventServiceImpl implements EventService {
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
     private final CommentRepository commentRepository;
-    private final StatsClient statsClient;
+    private final StatsHitRecorder statsHitRecorder;
+    private final EventViewsProvider eventViewsProvider;
+    private final EventDtoAssembler eventDtoAssembler;
+    private final EventViewCounter eventViewCounter;
+    private final EventSearchIndex eventSearchIndex;
+    private final EventDetailsCache eventDetailsCache;
+
+    @Value("${events.details.comments-limit:10}")
+    private int commentsLimit;
 
     @Override
     @Transactional
@@ -66,9 +81,10 @@ public class EventServiceImpl implements EventService {
         newEvent.setCategory(category);
         newEvent.setCreatedOn(LocalDateTime.now());
         newEvent.setState(State.PENDING);
-        newEvent.setParticipants(new HashSet<>());
 
-        return EventMapper.toEventFullDto(eventRepository.save(newEvent));
+        Event savedEvent = eventRepository.save(newEvent);
+        eventSearchIndex.index(savedEvent);
+        return EventMapper.toEventFullDto(savedEvent);
     }
 
     @Override
@@ -82,11 +98,8 @@ public class EventServiceImpl implements EventService {
 
         Pageable pageable = PageRequest.of(from, size);
 
-        List<Event> list = eventRepository.findEventsByInitiatorId(userId, pageable);
-        return list
-                .stream()
-                .map(EventMapper::toEventShortDto)
-                .collect(Collectors.toList());
+        List<EventSummary> list = eventRepository.findSummariesByInitiatorId(userId, pageable);
+        return eventDtoAssembler.toEventShortDtos(list);
     }
 
     @Override
@@ -107,6 +120,7 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
+    @Transactional
     public EventFullDto updateEventByUser(Long userId, Long eventId, UpdateEventUserRequest updateEventUserRequest) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ObjectNotFoundException(String.format(
@@ -157,48 +171,62 @@ public class EventServiceImpl implements EventService {
             }
         }
         eventRepository.save(event);
+        eventSearchIndex.index(event);
+        eventDetailsCache.invalidate(event.getId());
         return EventMapper.toEventFullDto(event);
     }
 
     @Override
-    public List<EventShortDto> getPublicEvents(String text, List<Long> categories, Boolean paid,
-                                               LocalDateTime rangeStart, LocalDateTime rangeEnd,
-                                               Boolean onlyAvailable, EventSortType sort,
-                                               Integer from, Integer size, HttpServletRequest request) {
+    public EventPage<EventShortDto> getPublicEvents(String text, List<Long> categories, Boolean paid,
+                                                    LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                    Boolean onlyAvailable, EventSortType sort, String cursor,
+                                                    Integer from, Integer size, HttpServletRequest request) {
 
         if (rangeEnd != null && rangeEnd.isBefore(rangeStart)) {
             throw new BadRequestException("End of range cannot be before start");
         }
+        if (cursor != null && sort == EventSortType.RELEVANCE) {
+            throw new BadRequestException("Cursor pagination is not supported for sort RELEVANCE");
+        }
 
-        Pageable pageable = PageRequest.of(from, size);
-        List<Event> events = new ArrayList<>();
-        if (sort != null && sort.equals(EventSortType.EVENT_DATE)) {
-            events = eventRepository.findPublicSortByDate(text, categories, paid, rangeStart, rangeEnd, pageable);
+        EventCursor after = cursor != null ? EventCursor.decode(cursor, sort) : null;
+        Pageable pageable = after != null ? PageRequest.of(0, size) : PageRequest.of(from, size);
+        List<EventSummary> events = new ArrayList<>();
+        if (text != null && !text.isBlank()) {
+            events = searchPublicEvents(EventSearchRequest.builder()
+                    .text(text)
+                    .categories(categories)
+                    .paid(paid)
+                    .onlyAvailable(onlyAvailable)
+                    .rangeStart(rangeStart)
+                    .rangeEnd(rangeEnd)
+                    .sort(sort)
+                    .cursor(after)
+                    .offset((int) pageable.getOffset())
+                    .limit(size)
+                    .build());
         } else if (sort != null && sort.equals(EventSortType.VIEWS)) {
-            events = eventRepository.findPublicSortByViews(text, categories, paid, rangeStart, rangeEnd, pageable);
-        }
-        if (onlyAvailable) {
-            events = events.stream()
-                    .filter((event -> event.getParticipants().size() < event.getParticipantLimit()))
-                    .collect(Collectors.toList());
+            events = after == null
+                    ? eventRepository.findPublicSortByViews(categories, paid, onlyAvailable, rangeStart, rangeEnd, pageable)
+                    : eventRepository.findPublicSortByViewsAfter(categories, paid, onlyAvailable, rangeStart, rangeEnd,
+                            after.getViews(), after.getId(), pageable);
+        } else if (sort != null) {
+            events = after == null
+                    ? eventRepository.findPublicSortByDate(categories, paid, onlyAvailable, rangeStart, rangeEnd, pageable)
+                    : eventRepository.findPublicSortByDateAfter(categories, paid, onlyAvailable, rangeStart, rangeEnd,
+                            after.getEventDate(), after.getId(), pageable);
         }
-        List<EventShortDto> eventShortDtoList = events.stream()
-                .map(EventMapper::toEventShortDto)
-                .collect(Collectors.toList());
+        String nextCursor = sort != EventSortType.RELEVANCE ? nextCursor(events, sort, size) : null;
+        List<EventShortDto> eventShortDtoList = eventDtoAssembler.toEventShortDtos(events);
 
-        while (eventShortDtoList.size() < size) {
-            eventShortDtoList.add(null);
-        }
         saveEndpointHit(request);
-        return eventShortDtoList;
+        return new EventPage<>(eventShortDtoList, nextCursor);
     }
 
     @Override
-    public List<EventFullDto> getAdminEvents(List<Long> users, List<State> states,
-                                             List<Long> categories, LocalDateTime rangeStart,
-                                             LocalDateTime rangeEnd, Integer from, Integer size) {
-
-        Pageable pageable = PageRequest.of(from, size);
+    public EventPage<EventFullDto> getAdminEvents(List<Long> users, List<State> states,
+                                                  List<Long> categories, LocalDateTime rangeStart,
+                                                  LocalDateTime rangeEnd, String cursor, Integer from, Integer size) {
 
         if (rangeStart == null) {
             rangeStart = LocalDateTime.now();
@@ -207,11 +235,19 @@ public class EventServiceImpl implements EventService {
             rangeEnd = LocalDateTime.now().plusYears(100);
         }
 
-        List<Event> list = eventRepository.findAdminEvents(users, states, categories, rangeStart, rangeEnd, pageable);
-        return list
-                .stream()
-                .map(EventMapper::toEventFullDto)
-                .collect(Collectors.toList());
+        List<Event> list;
+        if (cursor == null) {
+            list = eventRepository.findAdminEvents(users, states, categories, rangeStart, rangeEnd,
+                    PageRequest.of(from, size));
+        } else {
+            EventCursor after = EventCursor.decode(cursor, EventSortType.EVENT_DATE);
+            list = eventRepository.findAdminEventsAfter(users, states, categories, rangeStart, rangeEnd,
+                    after.getEventDate(), after.getId(), PageRequest.of(0, size));
+        }
+        List<EventFullDto> events = eventDtoAssembler.toEventFullDtos(list);
+        String nextCursor = list.size() < size ? null
+                : EventCursor.after(list.get(list.size() - 1), EventSortType.EVENT_DATE).encode();
+        return new EventPage<>(events, nextCursor);
     }
 
     @Override
@@ -255,7 +291,6 @@ public class EventServiceImpl implements EventService {
                 if (event.getState().equals(State.PENDING)) {
                     event.setState(State.PUBLISHED);
                     event.setPublishedOn(LocalDateTime.now());
-                    event.setViews(0);
                 } else {
                     throw new ConflictException(
                             "The event cannot be published due to its incorrect status: PENDING"
@@ -275,6 +310,8 @@ public class EventServiceImpl implements EventService {
             }
         }
         eventRepository.save(event);
+        eventSearchIndex.index(event);
+        eventDetailsCache.invalidate(event.getId());
         return EventMapper.toEventFullDto(event);
     }
 
@@ -283,6 +320,15 @@ public class EventServiceImpl implements EventService {
     public EventFullDto getPublicEventById(Long eventId, HttpServletRequest request) {
         saveEndpointHit(request);
 
+        EventFullDto eventFullDto = eventDetailsCache.get(eventId, this::loadPublicEvent);
+
+        eventViewCounter.increment(eventId);
+        return eventFullDto.toBuilder()
+                .views(eventViewsProvider.getViews(eventFullDto))
+                .build();
+    }
+
+    private EventFullDto loadPublicEvent(Long eventId) {
         Event event = eventRepository.findEventByIdAndAndState(eventId, State.PUBLISHED);
         if (event == null) {
             throw new ObjectNotFoundException(String.format(
@@ -290,22 +336,38 @@ public class EventServiceImpl implements EventService {
             ));
         }
 
-        if (event.getViews() == null) {
-            event.setViews(0);
-        }
-
-        event.setViews(event.getViews() + 1);
-        EventFullDto eventFullDto = EventMapper.toEventFullDto(event);
+        EventFullDto eventFullDto = eventDtoAssembler.toEventFullDto(event);
 
-        List<CommentDto> comments = commentRepository.getCommentsByEventId(eventId).stream()
+        List<CommentDto> comments = commentRepository.findNewest(eventId, PageRequest.of(0, commentsLimit)).stream()
                 .map(CommentMapper::toCommentDto)
                 .collect(Collectors.toList());
 
         eventFullDto.setComments(comments);
+        if (comments.size() == commentsLimit) {
+            eventFullDto.setCommentsCursor(
+                    CommentCursor.after(comments.get(comments.size() - 1), CommentSort.DESC).encode());
+        }
 
         return eventFullDto;
     }
 
+    private List<EventSummary> searchPublicEvents(EventSearchRequest searchRequest) {
+        List<Long> ids = eventSearchIndex.search(searchRequest);
+        Map<Long, EventSummary> found = eventRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(EventSummary::getId, Function.identity()));
+        return ids.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private String nextCursor(List<EventSummary> events, EventSortType sort, int size) {
+        if (events.size() < size) {
+            return null;
+        }
+        return EventCursor.after(events.get(events.size() - 1), sort).encode();
+    }
+
     private void saveEndpointHit(HttpServletRequest request) {
         EndpointHitDto endpointHit = EndpointHitDto.builder()
                 .ip(request.getRemoteAddr())
@@ -313,6 +375,6 @@ public class EventServiceImpl implements EventService {
                 .app("main")
                 .timestamp(LocalDateTime.now())
                 .build();
-        statsClient.addHit(endpointHit);
+        statsHitRecorder.record(endpointHit);
     }
 }
@@ -0,0 +1,78 @@
+package ru.practicum.ewm.event.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.event.repository.EventViewCountRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts event page views in memory and brings events.views up to date in periodic batches, so a popular
+ * event does not take a row lock on every request. On each flush the events viewed since the previous one
+ * get the stats-server unique count that is also displayed, which keeps SORT=VIEWS consistent with the
+ * shown numbers; the raw deltas are added instead only while the stats server is unavailable.
+ * <p>
+ * Adders are never removed: a caller may still hold one it got just before a flush, and removing it
+ * would orphan that increment. There is at most one per event.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventViewCounter {
+
+    private final EventViewCountRepository eventViewCountRepository;
+    private final EventRepository eventRepository;
+    private final EventViewsProvider eventViewsProvider;
+    private final Map<Long, LongAdder> counters = new ConcurrentHashMap<>();
+
+    public void increment(Long eventId) {
+        counters.computeIfAbsent(eventId, id -> new LongAdder()).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${events.views.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        Map<Long, Long> deltas = new HashMap<>();
+        counters.forEach((eventId, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta > 0) {
+                deltas.put(eventId, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Long, Integer> views = reconcile(deltas);
+            deltas.keySet().removeAll(views.keySet());
+            if (!deltas.isEmpty()) {
+                eventViewCountRepository.addViews(deltas);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush views for {} events, retrying later: {}", deltas.size(), e.getMessage());
+            deltas.forEach((eventId, delta) -> counters.get(eventId).add(delta));
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    private Map<Long, Integer> reconcile(Map<Long, Long> deltas) {
+        List<Event> events = eventRepository.findAllById(deltas.keySet());
+        Map<Long, Integer> views = eventViewsProvider.refresh(events);
+        if (!views.isEmpty()) {
+            eventViewCountRepository.setViews(views);
+        }
+        return views;
+    }
+}
@@ -0,0 +1,168 @@
+package ru.practicum.ewm.event.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.event.dto.EventFullDto;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.model.EventSummary;
+import ru.practicum.ewm.stats.client.StatsClient;
+import ru.practicum.ewm.stats.dto.ViewStatsDto;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves unique view counts for a page of events with one stats-server call,
+ * keeping the answers for a short time so repeated pages do not hit the server again.
+ */
+@Slf4j
+@Component
+public class EventViewsProvider {
+
+    private static final String EVENT_URI = "/events/";
+
+    private final StatsClient statsClient;
+    private final long ttlMs;
+    private final Map<Long, CachedViews> cache = new ConcurrentHashMap<>();
+
+    public EventViewsProvider(StatsClient statsClient,
+                              @Value("${stats-client.views.cache-ttl-ms:5000}") long ttlMs) {
+        this.statsClient = statsClient;
+        this.ttlMs = ttlMs;
+    }
+
+    public Map<Long, Integer> getViews(Collection<EventSummary> events) {
+        return getViews(events.stream()
+                .map(event -> new ViewsSource(event.getId(), event.getPublishedOn(), event.getViews()))
+                .collect(Collectors.toList()));
+    }
+
+    public Integer getViews(EventFullDto event) {
+        return getViews(List.of(new ViewsSource(event.getId(), event.getPublishedOn(), event.getViews())))
+                .get(event.getId());
+    }
+
+    /**
+     * Loads the current counts for published events straight from the stats server and refreshes the cache with
+     * them. Events the stats server could not answer for are left out of the result.
+     */
+    public Map<Long, Integer> refresh(Collection<Event> events) {
+        List<ViewsSource> published = events.stream()
+                .filter(event -> event.getPublishedOn() != null)
+                .map(event -> new ViewsSource(event.getId(), event.getPublishedOn(), event.getViews()))
+                .collect(Collectors.toList());
+        if (published.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<Long, Integer> fetched = fetch(published);
+        long expiresAt = System.currentTimeMillis() + ttlMs;
+        fetched.forEach((id, count) -> cache.put(id, new CachedViews(count, expiresAt)));
+        return fetched;
+    }
+
+    private Map<Long, Integer> getViews(List<ViewsSource> events) {
+        Map<Long, Integer> views = new HashMap<>();
+        Map<Long, ViewsSource> missing = new HashMap<>();
+        long now = System.currentTimeMillis();
+
+        for (ViewsSource event : events) {
+            if (event.publishedOn == null) {
+                views.put(event.id, 0);
+                continue;
+            }
+            CachedViews cached = cache.get(event.id);
+            if (cached != null && cached.expiresAt > now) {
+                views.put(event.id, cached.views);
+            } else {
+                missing.put(event.id, event);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Long, Integer> fetched = fetch(missing.values());
+            long expiresAt = System.currentTimeMillis() + ttlMs;
+            missing.forEach((id, event) -> {
+                Integer count = fetched.get(id);
+                if (count == null) {
+                    count = event.storedViews != null ? event.storedViews : 0;
+                } else {
+                    cache.put(id, new CachedViews(count, expiresAt));
+                }
+                views.put(id, count);
+            });
+            cache.values().removeIf(cached -> cached.expiresAt <= now);
+        }
+        return views;
+    }
+
+    private Map<Long, Integer> fetch(Collection<ViewsSource> events) {
+        LocalDateTime start = events.stream()
+                .map(event -> event.publishedOn)
+                .min(LocalDateTime::compareTo)
+                .orElseThrow();
+        List<String> uris = events.stream()
+                .map(event -> EVENT_URI + event.id)
+                .collect(Collectors.toList());
+
+        List<ViewStatsDto> stats;
+        try {
+            stats = statsClient.getStats(start, LocalDateTime.now(), uris, true);
+        } catch (RuntimeException e) {
+            log.warn("Failed to load views for {} events: {}", events.size(), e.getMessage());
+            return Map.of();
+        }
+
+        Map<Long, Integer> views = events.stream()
+                .collect(Collectors.toMap(event -> event.id, event -> 0));
+        if (stats == null) {
+            return views;
+        }
+        for (ViewStatsDto stat : stats) {
+            Long id = parseEventId(stat.getUri());
+            if (id != null && views.containsKey(id)) {
+                views.merge(id, Math.toIntExact(stat.getHits()), Integer::sum);
+            }
+        }
+        return views;
+    }
+
+    private Long parseEventId(String uri) {
+        if (uri == null || !uri.startsWith(EVENT_URI)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(uri.substring(EVENT_URI.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class ViewsSource {
+        private final Long id;
+        private final LocalDateTime publishedOn;
+        private final Integer storedViews;
+
+        private ViewsSource(Long id, LocalDateTime publishedOn, Integer storedViews) {
+            this.id = id;
+            this.publishedOn = publishedOn;
+            this.storedViews = storedViews;
+        }
+    }
+
+    private static final class CachedViews {
+        private final int views;
+        private final long expiresAt;
+
+        private CachedViews(int views, long expiresAt) {
+            this.views = views;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
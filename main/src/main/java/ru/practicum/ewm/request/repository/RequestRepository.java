@@ -1,14 +1,59 @@
 package ru.practicum.ewm.request.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.ewm.request.dto.ParticipationRequestDto;
+import ru.practicum.ewm.request.enums.RequestStatus;
 import ru.practicum.ewm.request.model.Request;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface RequestRepository extends JpaRepository<Request, Long> {
     List<Request> findByRequesterId(Long userId);
 
+    @Query("SELECT r FROM Request AS r WHERE r.event.id = :eventId AND r.requester.id = :userId")
     Request findByEventIdAndRequesterId(Long eventId, Long userId);
 
     List<Request> findByEventInitiatorIdAndEventId(Long initiatorId, Long eventId);
-}
\ No newline at end of file
+
+    @Query("SELECT new ru.practicum.ewm.request.dto.ParticipationRequestDto(" +
+            "r.id, r.created, r.event.id, r.requester.id, r.status) " +
+            "FROM Request AS r " +
+            "WHERE r.event.id = :eventId AND r.id IN :ids " +
+            "ORDER BY r.created, r.id")
+    List<ParticipationRequestDto> findDtoByEventIdAndIdIn(Long eventId, Collection<Long> ids);
+
+    @Query("SELECT COUNT(r) FROM Request AS r " +
+            "WHERE r.event.id = :eventId AND r.id IN :ids AND r.status = :status")
+    int countByEventIdAndIdInAndStatus(Long eventId, Collection<Long> ids, RequestStatus status);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE requests SET status = 'CONFIRMED' " +
+            "WHERE id IN (SELECT id FROM requests " +
+            "WHERE event_id = :eventId AND id IN (:ids) AND status = 'PENDING' " +
+            "ORDER BY created, id LIMIT :limit)", nativeQuery = true)
+    int confirmPending(Long eventId, Collection<Long> ids, int limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Request AS r SET r.status = 'REJECTED' " +
+            "WHERE r.event.id = :eventId AND r.id IN :ids AND r.status = 'PENDING'")
+    int rejectPendingByEventIdAndIdIn(Long eventId, Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Request AS r SET r.status = 'REJECTED' " +
+            "WHERE r.event.id = :eventId AND r.status = 'PENDING'")
+    int rejectPendingByEventId(Long eventId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Request AS r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int changeStatus(Long id, RequestStatus from, RequestStatus to);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE requests SET status = :status " +
+            "WHERE id IN (SELECT id FROM requests " +
+            "WHERE event_id = :eventId AND status = 'WAITLISTED' " +
+            "ORDER BY created, id LIMIT :count)", nativeQuery = true)
+    int promoteWaitlisted(Long eventId, int count, String status);
+}
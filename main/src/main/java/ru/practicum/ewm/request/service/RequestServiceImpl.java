@@ -6,6 +6,7 @@ import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.ewm.event.enums.State;
 import ru.practicum.ewm.event.model.Event;
 import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.event.service.EventDetailsCache;
 import ru.practicum.ewm.exception.BadRequestException;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.ObjectNotFoundException;
@@ -20,8 +21,9 @@ import ru.practicum.ewm.user.model.User;
 import ru.practicum.ewm.user.repository.UserRepository;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -34,6 +36,7 @@ public class RequestServiceImpl implements RequestService {
     private final RequestRepository requestRepository;
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
+    private final EventDetailsCache eventDetailsCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -63,10 +66,7 @@ public class RequestServiceImpl implements RequestService {
                         "User with ID: %s was not found", userId
                 )));
 
-        Event event = eventRepository.findById(eventId).orElseThrow(
-                () -> new ObjectNotFoundException(String.format(
-                        "Event with ID: %s was not found", eventId
-                )));
+        Event event = lockEvent(eventId);
 
         Request requestExist = requestRepository.findByEventIdAndRequesterId(eventId, userId);
 
@@ -88,26 +88,26 @@ public class RequestServiceImpl implements RequestService {
             ));
         }
 
-        if (event.getParticipantLimit() != 0 &&
-                event.getParticipants().size() >= event.getParticipantLimit()) {
-            throw new ConflictException(
-                    "The request has exceeded the maximum participant limit"
-            );
-        }
-
         Request request = Request.builder()
                 .requester(user)
                 .event(event)
                 .created(LocalDateTime.now())
                 .build();
 
-        if (!event.getRequestModeration() || event.getParticipantLimit() == 0) {
-            request.setStatus(RequestStatus.CONFIRMED);
+        if (isAutoConfirmed(event)) {
+            request.setStatus(eventRepository.reserveConfirmedRequests(eventId, 1) > 0
+                    ? RequestStatus.CONFIRMED : RequestStatus.WAITLISTED);
+        } else if (event.getConfirmedRequests() >= event.getParticipantLimit()) {
+            request.setStatus(RequestStatus.WAITLISTED);
         } else {
             request.setStatus(RequestStatus.PENDING);
         }
 
-        return toParticipationRequestDto(requestRepository.save(request));
+        Request savedRequest = requestRepository.save(request);
+        if (savedRequest.getStatus() == RequestStatus.CONFIRMED) {
+            eventDetailsCache.invalidate(eventId);
+        }
+        return toParticipationRequestDto(savedRequest);
     }
 
     @Override
@@ -129,6 +129,10 @@ public class RequestServiceImpl implements RequestService {
             ));
         }
 
+        Event event = lockEvent(request.getEvent().getId());
+        if (requestRepository.changeStatus(requestId, RequestStatus.CONFIRMED, RequestStatus.CANCELED) == 1) {
+            releaseSlots(event, 1);
+        }
         request.setStatus(RequestStatus.CANCELED);
 
         return toParticipationRequestDto(requestRepository.save(request));
@@ -148,15 +152,14 @@ public class RequestServiceImpl implements RequestService {
     @Transactional
     public EventRequestStatusUpdateResult updateEventRequest(Long userId, Long eventId,
                                                              EventRequestStatusUpdateRequest eventRequestStatusUpdateRequest) {
-        List<ParticipationRequestDto> confirmedRequests = new ArrayList<>();
-        List<ParticipationRequestDto> rejectedRequests = new ArrayList<>();
-
-        Event event = eventRepository.findEventByIdAndInitiator_Id(eventId, userId).orElseThrow(
+        Event event = eventRepository.findForUpdateByIdAndInitiatorId(eventId, userId).orElseThrow(
                 () -> new ObjectNotFoundException(String.format(
                         "Event with ID: %s was not found", eventId
                 )));
 
-        if (event.getParticipants().size() >= event.getParticipantLimit()) {
+        boolean unlimited = event.getParticipantLimit() == 0;
+        if (RequestStatus.CONFIRMED == eventRequestStatusUpdateRequest.getStatus() && !unlimited &&
+                event.getConfirmedRequests() >= event.getParticipantLimit()) {
             throw new ConflictException(
                     "The maximum limit of participants has been reached"
             );
@@ -168,25 +171,75 @@ public class RequestServiceImpl implements RequestService {
             );
         }
 
-        List<Request> requests = requestRepository.findAllById(eventRequestStatusUpdateRequest.getRequestIds());
+        List<Long> requestIds = eventRequestStatusUpdateRequest.getRequestIds();
+        if (requestIds == null || requestIds.isEmpty() || !event.getRequestModeration()) {
+            return EventRequestStatusUpdateResult.builder()
+                    .confirmedRequests(List.of())
+                    .rejectedRequests(List.of())
+                    .build();
+        }
 
-        requests.forEach(r -> {
-            if (!event.getRequestModeration() || event.getParticipantLimit() == 0) {
-                return;
-            }
-            if (RequestStatus.REJECTED == eventRequestStatusUpdateRequest.getStatus()) {
-                r.setStatus(RequestStatus.REJECTED);
-                rejectedRequests.add(toParticipationRequestDto(r));
+        if (requestRepository.countByEventIdAndIdInAndStatus(eventId, requestIds, RequestStatus.PENDING)
+                != new HashSet<>(requestIds).size()) {
+            throw new ConflictException("Request must have status PENDING");
+        }
+
+        if (RequestStatus.CONFIRMED == eventRequestStatusUpdateRequest.getStatus()) {
+            int remaining = unlimited ? requestIds.size()
+                    : Math.toIntExact(event.getParticipantLimit() - event.getConfirmedRequests());
+            int confirmed = requestRepository.confirmPending(eventId, requestIds, remaining);
+            if (confirmed > 0) {
+                reserveSlots(eventId, confirmed);
             }
-            if (RequestStatus.CONFIRMED == eventRequestStatusUpdateRequest.getStatus()) {
-                r.setStatus(RequestStatus.CONFIRMED);
-                confirmedRequests.add(toParticipationRequestDto(r));
+            if (!unlimited && confirmed == remaining) {
+                requestRepository.rejectPendingByEventId(eventId);
             }
-        });
+        } else if (RequestStatus.REJECTED == eventRequestStatusUpdateRequest.getStatus()) {
+            requestRepository.rejectPendingByEventIdAndIdIn(eventId, requestIds);
+        }
+
+        Map<RequestStatus, List<ParticipationRequestDto>> requests = requestRepository
+                .findDtoByEventIdAndIdIn(eventId, requestIds).stream()
+                .collect(Collectors.groupingBy(ParticipationRequestDto::getStatus));
 
         return EventRequestStatusUpdateResult.builder()
-                .confirmedRequests(confirmedRequests)
-                .rejectedRequests(rejectedRequests)
+                .confirmedRequests(requests.getOrDefault(RequestStatus.CONFIRMED, List.of()))
+                .rejectedRequests(requests.getOrDefault(RequestStatus.REJECTED, List.of()))
                 .build();
     }
+
+    /**
+     * Locks the event row, so deciding between confirming, waitlisting and promoting a request is serialized
+     * with every other change to the event's participants.
+     */
+    private Event lockEvent(Long eventId) {
+        return eventRepository.findForUpdateById(eventId).orElseThrow(
+                () -> new ObjectNotFoundException(String.format(
+                        "Event with ID: %s was not found", eventId
+                )));
+    }
+
+    private void reserveSlots(Long eventId, int count) {
+        if (eventRepository.reserveConfirmedRequests(eventId, count) == 0) {
+            throw new ConflictException(
+                    "The maximum limit of participants has been reached"
+            );
+        }
+        eventDetailsCache.invalidate(eventId);
+    }
+
+    private void releaseSlots(Event event, int count) {
+        eventRepository.addConfirmedRequests(event.getId(), -count);
+        boolean autoConfirmed = isAutoConfirmed(event);
+        int promoted = requestRepository.promoteWaitlisted(event.getId(), count,
+                (autoConfirmed ? RequestStatus.CONFIRMED : RequestStatus.PENDING).name());
+        if (autoConfirmed && promoted > 0) {
+            eventRepository.addConfirmedRequests(event.getId(), promoted);
+        }
+        eventDetailsCache.invalidate(event.getId());
+    }
+
+    private boolean isAutoConfirmed(Event event) {
+        return !event.getRequestModeration() || event.getParticipantLimit() == 0;
+    }
 }
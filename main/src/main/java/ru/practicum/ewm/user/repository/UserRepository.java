@@ -3,8 +3,10 @@ package ru.practicum.ewm.user.repository;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.ewm.user.dto.UserShortDto;
 import ru.practicum.ewm.user.model.User;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -12,4 +14,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> getAllUsersByIdInOrPageable(List<Long> ids, Pageable pageable);
 
     boolean existsByName(String name);
+
+    @Query("SELECT new ru.practicum.ewm.user.dto.UserShortDto(u.id, u.name) FROM User u")
+    List<UserShortDto> findAllShort();
+
+    @Query("SELECT new ru.practicum.ewm.user.dto.UserShortDto(u.id, u.name) FROM User u WHERE u.id IN :ids")
+    List<UserShortDto> findShortByIdIn(Collection<Long> ids);
 }
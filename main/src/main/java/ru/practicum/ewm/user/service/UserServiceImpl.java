@@ -4,6 +4,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.event.search.EventSearchIndex;
+import ru.practicum.ewm.event.service.EventDetailsCache;
 import ru.practicum.ewm.exception.ConflictException;
 import ru.practicum.ewm.exception.ObjectNotFoundException;
 import ru.practicum.ewm.user.dto.NewUserRequest;
@@ -23,6 +26,10 @@ import static ru.practicum.ewm.user.mapper.UserMapper.toUserDto;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final EventRepository eventRepository;
+    private final EventSearchIndex eventSearchIndex;
+    private final EventDetailsCache eventDetailsCache;
+    private final UserShortCache userShortCache;
 
     @Override
     @Transactional
@@ -35,9 +42,10 @@ public class UserServiceImpl implements UserService {
             );
         }
 
-        User user = toUser(newUserRequest);
+        User savedUser = userRepository.save(toUser(newUserRequest));
+        userShortCache.put(savedUser);
 
-        return toUserDto(userRepository.save(user));
+        return toUserDto(savedUser);
     }
 
     @Override
@@ -56,7 +64,10 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public void deleteUser(Long userId) {
         if (userRepository.existsById(userId)) {
+            eventSearchIndex.remove(eventRepository.findIdsByInitiatorId(userId));
             userRepository.deleteById(userId);
+            userShortCache.evict(userId);
+            eventDetailsCache.invalidateAll();
         } else {
             throw new ObjectNotFoundException(String.format(
                     "User with ID: %s not found", userId
@@ -0,0 +1,82 @@
+package ru.practicum.ewm.user.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.user.dto.UserShortDto;
+import ru.practicum.ewm.user.mapper.UserMapper;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+import ru.practicum.ewm.util.AfterCommit;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Short user profiles by id, bulk-loaded on startup and kept current by admin writes. Misses are
+ * loaded in one query and only kept if no write happened while they were being read.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserShortCache {
+
+    private final UserRepository userRepository;
+    private final Map<Long, UserShortDto> users = new ConcurrentHashMap<>();
+    private long version;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        install(currentVersion(), userRepository.findAllShort());
+    }
+
+    public Map<Long, UserShortDto> getAll(Collection<Long> ids) {
+        Map<Long, UserShortDto> result = new HashMap<>();
+        List<Long> missing = ids.stream()
+                .distinct()
+                .filter(id -> {
+                    UserShortDto user = users.get(id);
+                    if (user != null) {
+                        result.put(id, user);
+                    }
+                    return user == null;
+                })
+                .collect(Collectors.toList());
+
+        if (!missing.isEmpty()) {
+            long loadVersion = currentVersion();
+            List<UserShortDto> loaded = userRepository.findShortByIdIn(missing);
+            loaded.forEach(user -> result.put(user.getId(), user));
+            install(loadVersion, loaded);
+        }
+        return result;
+    }
+
+    public void put(User user) {
+        UserShortDto userShortDto = UserMapper.toUserShortDto(user);
+        AfterCommit.run(() -> write(() -> users.put(userShortDto.getId(), userShortDto)));
+    }
+
+    public void evict(Long userId) {
+        AfterCommit.run(() -> write(() -> users.remove(userId)));
+    }
+
+    private synchronized long currentVersion() {
+        return version;
+    }
+
+    private synchronized void write(Runnable change) {
+        version++;
+        change.run();
+    }
+
+    private synchronized void install(long loadVersion, List<UserShortDto> loaded) {
+        if (loadVersion == version) {
+            loaded.forEach(user -> users.put(user.getId(), user));
+        }
+    }
+}
@@ -0,0 +1,2 @@
+CREATE INDEX IF NOT EXISTS idx_events_state_event_date ON events (state, event_date, id);
+CREATE INDEX IF NOT EXISTS idx_events_state_views ON events (state, views DESC, id);
@@ -0,0 +1,9 @@
+ALTER TABLE events ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+  setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+  setweight(to_tsvector('simple', coalesce(annotation, '')), 'B')
+) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_events_search_vector ON events USING GIN (search_vector);
+
+CREATE INDEX IF NOT EXISTS idx_events_published_event_date ON events (event_date, id) WHERE state = 'PUBLISHED';
+CREATE INDEX IF NOT EXISTS idx_events_published_views ON events (views DESC, id) WHERE state = 'PUBLISHED';
@@ -24,7 +24,8 @@ CREATE TABLE IF NOT EXISTS events (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   annotation VARCHAR(2000) NOT NULL,
   category_id BIGINT NOT NULL,
-  confirmed_requests INTEGER,
+  confirmed_requests INTEGER NOT NULL DEFAULT 0,
+  comments_count INTEGER NOT NULL DEFAULT 0,
   created_on TIMESTAMP WITHOUT TIME ZONE NOT NULL,
   description VARCHAR(7000) NOT NULL,
   event_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
@@ -35,7 +36,7 @@ CREATE TABLE IF NOT EXISTS events (
   request_moderation BOOLEAN,
   state VARCHAR(10) NOT NULL,
   title VARCHAR(128) NOT NULL,
-  views INTEGER,
+  views INTEGER DEFAULT 0,
   location_lat REAL NOT NULL,
   location_lon REAL NOT NULL,
   CONSTRAINT pk_events PRIMARY KEY (id),
@@ -43,6 +44,10 @@ CREATE TABLE IF NOT EXISTS events (
   FOREIGN KEY (initiator_id) REFERENCES users (id) ON DELETE CASCADE
 );
 
+CREATE INDEX IF NOT EXISTS idx_events_event_date ON events (event_date, id);
+CREATE INDEX IF NOT EXISTS idx_events_initiator ON events (initiator_id, id);
+CREATE INDEX IF NOT EXISTS idx_events_category ON events (category_id);
+
 CREATE TABLE IF NOT EXISTS requests (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   event_id BIGINT,
@@ -54,6 +59,9 @@ CREATE TABLE IF NOT EXISTS requests (
   FOREIGN KEY (requester_id) REFERENCES users (id) ON DELETE CASCADE
 );
 
+CREATE INDEX IF NOT EXISTS idx_requests_event_status_created ON requests (event_id, status, created, id);
+CREATE INDEX IF NOT EXISTS idx_requests_requester_event ON requests (requester_id, event_id);
+
 CREATE TABLE IF NOT EXISTS compilations (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   title VARCHAR(255) NOT NULL,
@@ -69,6 +77,8 @@ CREATE TABLE IF NOT EXISTS compilation_events (
   FOREIGN KEY (event_id) REFERENCES events (id) ON DELETE CASCADE
 );
 
+CREATE INDEX IF NOT EXISTS idx_compilation_events_event ON compilation_events (event_id);
+
 CREATE TABLE IF NOT EXISTS comments (
   id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
   event_id BIGINT NOT NULL,
@@ -77,6 +87,8 @@ CREATE TABLE IF NOT EXISTS comments (
   created TIMESTAMP WITHOUT TIME ZONE,
   updated TIMESTAMP WITHOUT TIME ZONE,
   CONSTRAINT pk_comments PRIMARY KEY (id),
-  FOREIGN KEY (event_id) REFERENCES events (id) ON DELETE CASCADE,
+  CONSTRAINT fk_comments_event FOREIGN KEY (event_id) REFERENCES events (id) ON DELETE CASCADE,
   FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS idx_comments_event ON comments (event_id, created, id);
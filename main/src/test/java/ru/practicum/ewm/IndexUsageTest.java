@@ -0,0 +1,171 @@
+package ru.practicum.ewm;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.ewm.comment.repository.CommentRepository;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.request.repository.RequestRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs H2 EXPLAIN on the SQL Hibernate actually generates for the hot listing and lookup queries
+ * and checks that the plans go through the indexes from schema.sql and schema-h2.sql. The tables are
+ * seeded and analyzed first, so the choice is made on realistic selectivity rather than empty tables.
+ */
+@SpringBootTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IndexUsageTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final String[] STATES = {"PUBLISHED", "PUBLISHED", "PENDING", "CANCELED"};
+    private static final String[] STATUSES = {"PENDING", "CONFIRMED", "CONFIRMED", "REJECTED", "CANCELED"};
+    private static final int USERS = 200;
+    private static final int EVENTS = 2_000;
+    private static final int REQUESTS = 20_000;
+    private static final int COMMENTS = 20_000;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private List<Long> users;
+    private Long category;
+
+    @BeforeAll
+    void seed() {
+        Random random = new Random(42);
+        jdbcTemplate.batchUpdate("INSERT INTO users (name, email) VALUES (?, ?)", range(USERS), USERS,
+                (ps, i) -> {
+                    ps.setString(1, "indexed" + i);
+                    ps.setString(2, "indexed" + i + "@example.com");
+                });
+        users = jdbcTemplate.queryForList("SELECT id FROM users WHERE email LIKE 'indexed%'", Long.class);
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('indexed')");
+        category = jdbcTemplate.queryForObject("SELECT id FROM categories WHERE name = 'indexed'", Long.class);
+
+        jdbcTemplate.batchUpdate("INSERT INTO events (annotation, category_id, created_on, description, " +
+                "event_date, initiator_id, state, title, location_lat, location_lon) " +
+                "VALUES ('annotation', ?, ?, 'description', ?, ?, ?, 'indexed', 0, 0)", range(EVENTS), 500,
+                (ps, i) -> {
+                    ps.setLong(1, category);
+                    ps.setTimestamp(2, Timestamp.valueOf(NOW.minusDays(random.nextInt(365))));
+                    ps.setTimestamp(3, Timestamp.valueOf(NOW.plusHours(random.nextInt(2 * 365 * 24) - 365 * 24)));
+                    ps.setLong(4, users.get(random.nextInt(USERS)));
+                    ps.setString(5, STATES[random.nextInt(STATES.length)]);
+                });
+        List<Long> events = jdbcTemplate.queryForList("SELECT id FROM events WHERE category_id = ?", Long.class,
+                category);
+
+        jdbcTemplate.batchUpdate("INSERT INTO requests (event_id, requester_id, status, created) VALUES (?, ?, ?, ?)",
+                range(REQUESTS), 1_000, (ps, i) -> {
+                    ps.setLong(1, events.get(random.nextInt(EVENTS)));
+                    ps.setLong(2, users.get(random.nextInt(USERS)));
+                    ps.setString(3, STATUSES[random.nextInt(STATUSES.length)]);
+                    ps.setTimestamp(4, Timestamp.valueOf(NOW.minusMinutes(random.nextInt(100_000))));
+                });
+        jdbcTemplate.batchUpdate("INSERT INTO comments (event_id, user_id, text, created) VALUES (?, ?, 'text', ?)",
+                range(COMMENTS), 1_000, (ps, i) -> {
+                    ps.setLong(1, events.get(random.nextInt(EVENTS)));
+                    ps.setLong(2, users.get(random.nextInt(USERS)));
+                    ps.setTimestamp(3, Timestamp.valueOf(NOW.minusMinutes(random.nextInt(100_000))));
+                });
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @AfterAll
+    void clean() {
+        jdbcTemplate.update("DELETE FROM events WHERE category_id = ?", category);
+        jdbcTemplate.update("DELETE FROM categories WHERE id = ?", category);
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE 'indexed%'");
+    }
+
+    @Test
+    void publicEventsByDateUseStateEventDateIndex() {
+        String plan = explain(() -> eventRepository.findPublicSortByDate(List.of(1L), false, true,
+                        NOW, NOW.plusDays(1), PageRequest.of(0, 10)),
+                1L, 1L, false, NOW, NOW, NOW.plusDays(1), true, 10);
+
+        assertThat(plan).contains("PUBLIC.IDX_EVENTS_STATE_EVENT_DATE: EVENT_DATE > ?4")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void adminEventsUseEventDateIndexForFilterAndOrder() {
+        String plan = explain(() -> eventRepository.findAdminEvents(null, null, null, NOW, null,
+                        PageRequest.of(0, 10)),
+                null, null, null, null, null, null, NOW, null, null, 10);
+
+        assertThat(plan).contains("PUBLIC.IDX_EVENTS_EVENT_DATE: EVENT_DATE > ?7")
+                .contains("index sorted")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void requestOfUserForEventUsesRequesterEventIndex() {
+        String plan = explain(() -> requestRepository.findByEventIdAndRequesterId(1L, 2L), 1L, 2L);
+
+        assertThat(plan).contains("PUBLIC.IDX_REQUESTS_REQUESTER_EVENT: EVENT_ID = ?1 AND REQUESTER_ID = ?2")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void commentPagesAfterACursorUseEventCreatedIndex() {
+        LocalDateTime created = NOW.minusDays(1);
+        String oldest = explain(() -> commentRepository.findOldestAfter(1L, created, 5L, PageRequest.of(0, 10)),
+                1L, created, created, 5L, 10);
+        String newest = explain(() -> commentRepository.findNewestBefore(1L, created, 5L, PageRequest.of(0, 10)),
+                1L, created, created, 5L, 10);
+
+        assertThat(oldest).contains("PUBLIC.IDX_COMMENTS_EVENT: EVENT_ID = ?1 AND CREATED >= ?2")
+                .doesNotContain("tableScan");
+        assertThat(newest).contains("PUBLIC.IDX_COMMENTS_EVENT: EVENT_ID = ?1 AND CREATED <= ?2")
+                .doesNotContain("tableScan");
+    }
+
+    @Test
+    void firstCommentPageOfEventIsLookedUpByEventId() {
+        // findNewest backs the comments embedded in the event page and replaced getCommentsByEventId.
+        // H2 adds its own event_id index for fk_comments_event and prefers it when only event_id is bound;
+        // PostgreSQL creates no index for a foreign key, so there idx_comments_event is the only candidate.
+        String newest = explain(() -> commentRepository.findNewest(1L, PageRequest.of(0, 10)), 1L, 10);
+        String oldest = explain(() -> commentRepository.findOldest(1L, PageRequest.of(0, 10)), 1L, 10);
+
+        assertThat(newest).containsPattern("PUBLIC\\.FK_COMMENTS_EVENT_INDEX_\\w+: EVENT_ID = \\?1")
+                .doesNotContain("tableScan");
+        assertThat(oldest).containsPattern("PUBLIC\\.FK_COMMENTS_EVENT_INDEX_\\w+: EVENT_ID = \\?1")
+                .doesNotContain("tableScan");
+    }
+
+    private String explain(Runnable query, Object... params) {
+        List<String> statements = SqlCapture.capture(query);
+        assertThat(statements).hasSize(1);
+        return jdbcTemplate.queryForObject("EXPLAIN " + statements.get(0), String.class, params)
+                .replaceAll("\\s+", " ");
+    }
+
+    private static List<Integer> range(int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toList());
+    }
+}
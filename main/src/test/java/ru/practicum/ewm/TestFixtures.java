@@ -0,0 +1,67 @@
+package ru.practicum.ewm;
+
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.event.enums.State;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.location.Location;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seeds users, categories and events straight through the repositories for the integration tests.
+ */
+public class TestFixtures {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final UserRepository userRepository;
+    private final CategoryRepository categoryRepository;
+    private final EventRepository eventRepository;
+
+    public TestFixtures(UserRepository userRepository, CategoryRepository categoryRepository,
+                        EventRepository eventRepository) {
+        this.userRepository = userRepository;
+        this.categoryRepository = categoryRepository;
+        this.eventRepository = eventRepository;
+    }
+
+    public User user() {
+        long n = SEQUENCE.incrementAndGet();
+        return userRepository.save(User.builder()
+                .name("user" + n)
+                .email("user" + n + "@example.com")
+                .build());
+    }
+
+    public Category category() {
+        return categoryRepository.save(Category.builder()
+                .name("category" + SEQUENCE.incrementAndGet())
+                .build());
+    }
+
+    public Event publishedEvent(User initiator, Category category, long participantLimit, boolean moderation) {
+        return eventRepository.save(Event.builder()
+                .annotation("Annotation of a test event long enough")
+                .category(category)
+                .createdOn(LocalDateTime.now())
+                .description("Description of a test event long enough")
+                .eventDate(LocalDateTime.now().plusDays(10))
+                .initiator(initiator)
+                .location(new Location(55.75f, 37.62f))
+                .paid(false)
+                .participantLimit(participantLimit)
+                .publishedOn(LocalDateTime.now())
+                .requestModeration(moderation)
+                .state(State.PUBLISHED)
+                .title("Test event " + SEQUENCE.incrementAndGet())
+                .confirmedRequests(0)
+                .commentsCount(0)
+                .views(0)
+                .build());
+    }
+}
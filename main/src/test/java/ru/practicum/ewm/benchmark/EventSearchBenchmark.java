@@ -0,0 +1,165 @@
+package ru.practicum.ewm.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import ru.practicum.ewm.MainApp;
+import ru.practicum.ewm.event.enums.EventSortType;
+import ru.practicum.ewm.event.search.EventSearchIndex;
+import ru.practicum.ewm.event.search.EventSearchRequest;
+import ru.practicum.ewm.event.search.InMemoryEventSearchIndex;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Public text search latency over {@code events} seeded events, for a word found in about a third of them
+ * ({@code rank} 0) and for one found in a few hundred ({@code rank} 5000). {@code substringLike} is the
+ * LIKE scan the index engines replaced. The memory engine runs on H2; for the postgres engine point the
+ * default datasource at an empty database and pass {@code -p engine=postgres}. Run after
+ * {@code mvn -pl main -am test-compile} with
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main EventSearchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EventSearchBenchmark {
+
+    private static final String[] SYLLABLES = syllables();
+    private static final int VOCABULARY = 10_000;
+    private static final int TITLE_WORDS = 3;
+    private static final int ANNOTATION_WORDS = 5;
+    private static final int BATCH = 5_000;
+
+    @Param({"memory"})
+    private String engine;
+
+    @Param({"1000000"})
+    private int events;
+
+    @Param({"0", "5000"})
+    private int rank;
+
+    private ConfigurableApplicationContext context;
+    private EventSearchIndex searchIndex;
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(MainApp.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.jpa.show_sql=false", "logging.level.root=WARN",
+                        "events.search.engine=" + engine);
+        if ("memory".equals(engine)) {
+            builder.profiles("ci");
+        }
+        context = builder.run();
+        seed(context.getBean(JdbcTemplate.class), events);
+        if ("memory".equals(engine)) {
+            context.getBean(InMemoryEventSearchIndex.class).load();
+        }
+        searchIndex = context.getBean(EventSearchIndex.class);
+        namedJdbcTemplate = context.getBean(NamedParameterJdbcTemplate.class);
+        text = word(rank);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> relevance() {
+        return searchIndex.search(request(EventSortType.RELEVANCE));
+    }
+
+    @Benchmark
+    public List<Long> eventDate() {
+        return searchIndex.search(request(EventSortType.EVENT_DATE));
+    }
+
+    @Benchmark
+    public List<Long> substringLike() {
+        return namedJdbcTemplate.queryForList("SELECT e.id FROM events e " +
+                        "WHERE (lower(e.annotation) LIKE :text OR lower(e.title) LIKE :text) " +
+                        "AND e.state = 'PUBLISHED' AND e.event_date > :rangeStart " +
+                        "ORDER BY e.event_date, e.id LIMIT 10",
+                new MapSqlParameterSource("text", "%" + text + "%")
+                        .addValue("rangeStart", LocalDateTime.now()), Long.class);
+    }
+
+    private EventSearchRequest request(EventSortType sort) {
+        return EventSearchRequest.builder()
+                .text(text)
+                .rangeStart(LocalDateTime.now())
+                .sort(sort)
+                .limit(10)
+                .build();
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate, int events) {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('benchmark', 'benchmark@example.com')");
+        jdbcTemplate.update("INSERT INTO categories (name) VALUES ('benchmark')");
+        Long user = jdbcTemplate.queryForObject("SELECT MAX(id) FROM users", Long.class);
+        Long category = jdbcTemplate.queryForObject("SELECT MAX(id) FROM categories", Long.class);
+        LocalDateTime now = LocalDateTime.now();
+        Random random = new Random(42);
+        List<Integer> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            batch.add(i);
+        }
+        for (int done = 0; done < events; done += BATCH) {
+            jdbcTemplate.batchUpdate("INSERT INTO events (annotation, category_id, created_on, description, " +
+                            "event_date, initiator_id, state, title, location_lat, location_lon) " +
+                            "VALUES (?, ?, ?, 'description', ?, ?, ?, ?, 0, 0)", batch.subList(0, Math.min(BATCH,
+                            events - done)), BATCH,
+                    (ps, i) -> {
+                        ps.setString(1, words(random, ANNOTATION_WORDS));
+                        ps.setLong(2, category);
+                        ps.setTimestamp(3, Timestamp.valueOf(now.minusDays(1)));
+                        ps.setTimestamp(4, Timestamp.valueOf(now.plusHours(random.nextInt(2 * 365 * 24) - 365 * 24)));
+                        ps.setLong(5, user);
+                        ps.setString(6, random.nextInt(10) == 0 ? "PENDING" : "PUBLISHED");
+                        ps.setString(7, words(random, TITLE_WORDS));
+                    });
+        }
+    }
+
+    /**
+     * Cubing a uniform draw skews word popularity towards low ranks, roughly like natural text.
+     */
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i == 0 ? "" : " ").append(word((int) (VOCABULARY * Math.pow(random.nextDouble(), 3))));
+        }
+        return text.toString();
+    }
+
+    private static String word(int rank) {
+        int n = SYLLABLES.length;
+        return SYLLABLES[rank % n] + SYLLABLES[rank / n % n] + SYLLABLES[rank / (n * n) % n];
+    }
+
+    private static String[] syllables() {
+        String consonants = "bdgklmnprst";
+        String vowels = "aeiou";
+        String[] syllables = new String[consonants.length() * vowels.length()];
+        for (int i = 0; i < syllables.length; i++) {
+            syllables[i] = "" + consonants.charAt(i / vowels.length()) + vowels.charAt(i % vowels.length());
+        }
+        return syllables;
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.ewm.comment.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import ru.practicum.ewm.TestFixtures;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.comment.dto.CommentDto;
+import ru.practicum.ewm.comment.dto.CommentPage;
+import ru.practicum.ewm.comment.dto.NewCommentDto;
+import ru.practicum.ewm.comment.enums.CommentSort;
+import ru.practicum.ewm.event.dto.EventFullDto;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.event.service.EventService;
+import ru.practicum.ewm.exception.BadRequestException;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Comments are created in groups sharing one timestamp, so every page boundary that falls inside a group
+ * has to be resolved by the id half of the cursor.
+ */
+@SpringBootTest
+class CommentPaginationTest {
+
+    private static final int COMMENTS = 25;
+    private static final int TIE_GROUP = 4;
+    private static final int DETAILS_COMMENTS = 10;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Long eventId;
+    private List<Long> oldestFirst;
+
+    @BeforeEach
+    void setUp() {
+        TestFixtures fixtures = new TestFixtures(userRepository, categoryRepository, eventRepository);
+        eventId = fixtures.publishedEvent(fixtures.user(), fixtures.category(), 0, false).getId();
+        User commenter = fixtures.user();
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusHours(1);
+        oldestFirst = new ArrayList<>();
+        for (int i = 0; i < COMMENTS; i++) {
+            Long commentId = commentService.addComment(commenter.getId(), eventId, NewCommentDto.builder()
+                    .text("Comment " + i)
+                    .build()).getId();
+            jdbcTemplate.update("UPDATE comments SET created = ? WHERE id = ?",
+                    Timestamp.valueOf(base.plusSeconds(i / TIE_GROUP)), commentId);
+            oldestFirst.add(commentId);
+        }
+    }
+
+    @Test
+    void cursorWalksEveryCommentOnceInBothDirectionsAcrossTies() {
+        List<Long> newestFirst = new ArrayList<>(oldestFirst);
+        Collections.reverse(newestFirst);
+
+        assertThat(walk(CommentSort.ASC, 3)).containsExactlyElementsOf(oldestFirst);
+        assertThat(walk(CommentSort.DESC, 3)).containsExactlyElementsOf(newestFirst);
+    }
+
+    @Test
+    void cursorFromTheOtherSortIsRejected() {
+        String ascCursor = commentService.getComments(eventId, CommentSort.ASC, null, 0, 3).getNextCursor();
+        String descCursor = commentService.getComments(eventId, CommentSort.DESC, null, 0, 3).getNextCursor();
+
+        assertThatThrownBy(() -> commentService.getComments(eventId, CommentSort.DESC, ascCursor, 0, 3))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> commentService.getComments(eventId, CommentSort.ASC, descCursor, 0, 3))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> commentService.getComments(eventId, CommentSort.ASC, "not-a-cursor", 0, 3))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void detailsCursorContinuesRightAfterTheEmbeddedComments() {
+        EventFullDto details = eventService.getPublicEventById(eventId,
+                new MockHttpServletRequest("GET", "/events/" + eventId));
+        List<Long> newestFirst = new ArrayList<>(oldestFirst);
+        Collections.reverse(newestFirst);
+
+        assertThat(ids(details.getComments())).containsExactlyElementsOf(newestFirst.subList(0, DETAILS_COMMENTS));
+        assertThat(details.getCommentsCursor()).isNotNull();
+
+        CommentPage next = commentService.getComments(eventId, CommentSort.DESC, details.getCommentsCursor(), 0, 5);
+
+        assertThat(ids(next.getItems()))
+                .containsExactlyElementsOf(newestFirst.subList(DETAILS_COMMENTS, DETAILS_COMMENTS + 5));
+    }
+
+    private List<Long> walk(CommentSort sort, int size) {
+        List<Long> ids = new ArrayList<>();
+        CommentPage page = commentService.getComments(eventId, sort, null, 0, size);
+        ids.addAll(ids(page.getItems()));
+        while (page.getNextCursor() != null) {
+            page = commentService.getComments(eventId, sort, page.getNextCursor(), 0, size);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(size);
+            ids.addAll(ids(page.getItems()));
+        }
+        return ids;
+    }
+
+    private static List<Long> ids(List<CommentDto> comments) {
+        return comments.stream()
+                .map(CommentDto::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,183 @@
+package ru.practicum.ewm.event.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.TestFixtures;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.event.enums.EventSortType;
+import ru.practicum.ewm.event.enums.State;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+import ru.practicum.ewm.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class InMemoryEventSearchIndexTest {
+
+    @Autowired
+    private InMemoryEventSearchIndex searchIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private TestFixtures fixtures;
+    private User initiator;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(userRepository, categoryRepository, eventRepository);
+        initiator = fixtures.user();
+        category = fixtures.category();
+    }
+
+    @Test
+    void queryWordsMatchAsWordPrefixesNotSubstrings() {
+        Long concert = event("Open air concert", "Rock bands on the river bank").getId();
+        Long lecture = event("Concrete lecture", "Building materials").getId();
+
+        assertThat(search("conc")).containsExactlyInAnyOrder(concert, lecture);
+        assertThat(search("concert")).containsExactly(concert);
+        assertThat(search("conc riv")).containsExactly(concert);
+        assertThat(search("cert")).isEmpty();
+        assertThat(search("air concert lecture")).isEmpty();
+    }
+
+    @Test
+    void relevancePageWidensCandidatesPastFilteredOutBetterMatches() {
+        Category other = fixtures.category();
+        for (int i = 0; i < 250; i++) {
+            Event decoy = fixtures.publishedEvent(initiator, other, 0, false);
+            decoy.setTitle("Zephyr regatta " + i);
+            searchIndex.index(eventRepository.save(decoy));
+        }
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(event("Sailing day " + i, "Light zephyr expected").getId());
+        }
+
+        assertThat(search("zephyr")).containsExactlyElementsOf(expected);
+        assertThat(search("zephyr", EventSortType.RELEVANCE, 2, 2)).containsExactlyElementsOf(expected.subList(2, 4));
+    }
+
+    @Test
+    void commonWordPagesByEventDateMatchTheSqlOrder() {
+        List<Long> byDate = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Event event = fixtures.publishedEvent(initiator, category, 0, false);
+            event.setTitle("Kayak trip " + i);
+            event.setEventDate(LocalDateTime.now().plusDays(70 - i));
+            byDate.add(0, eventRepository.save(event).getId());
+            searchIndex.index(event);
+        }
+        Long pastEvent = event("Kayak repair", "Already happened").getId();
+        eventRepository.findById(pastEvent).ifPresent(event -> {
+            event.setEventDate(LocalDateTime.now().minusDays(1));
+            eventRepository.save(event);
+        });
+
+        assertThat(search("kayak", EventSortType.EVENT_DATE, 0, 5)).containsExactlyElementsOf(byDate.subList(0, 5));
+        assertThat(search("kayak", EventSortType.EVENT_DATE, 3, 1)).containsExactly(byDate.get(3));
+        assertThat(search("kayak", EventSortType.EVENT_DATE, 55, 10)).containsExactlyElementsOf(byDate.subList(55, 60));
+    }
+
+    @Test
+    void rolledBackUpdateLeavesNoTerms() {
+        Event event = event("Chess tournament", "Blitz games");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            event.setTitle("Phantom tournament");
+            eventRepository.save(event);
+            searchIndex.index(event);
+            status.setRollbackOnly();
+        });
+
+        assertThat(search("phantom")).isEmpty();
+        assertThat(search("chess")).containsExactly(event.getId());
+    }
+
+    @Test
+    void committedUpdateReplacesTerms() {
+        Event event = event("Chess tournament", "Blitz games");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            event.setTitle("Go tournament");
+            eventRepository.save(event);
+            searchIndex.index(event);
+            assertThat(search("go")).doesNotContain(event.getId());
+        });
+
+        assertThat(search("go tournament")).containsExactly(event.getId());
+        assertThat(search("chess")).isEmpty();
+    }
+
+    @Test
+    void eventThatIsNoLongerPublishedIsDropped() {
+        Event event = event("Pottery workshop", "Clay and wheels");
+
+        transactionTemplate.executeWithoutResult(status -> {
+            event.setState(State.CANCELED);
+            eventRepository.save(event);
+            searchIndex.index(event);
+        });
+
+        assertThat(searchIndex.contains(event.getId())).isFalse();
+    }
+
+    @Test
+    void deletingInitiatorDropsTheirEvents() {
+        Long eventId = event("Photography walk", "Old town streets").getId();
+
+        userService.deleteUser(initiator.getId());
+
+        assertThat(searchIndex.contains(eventId)).isFalse();
+        assertThat(eventRepository.existsById(eventId)).isFalse();
+    }
+
+    private Event event(String title, String annotation) {
+        Event event = fixtures.publishedEvent(initiator, category, 0, false);
+        event.setTitle(title);
+        event.setAnnotation(annotation);
+        Event saved = eventRepository.save(event);
+        searchIndex.index(saved);
+        return saved;
+    }
+
+    private List<Long> search(String text) {
+        return search(text, EventSortType.RELEVANCE, 0, 10);
+    }
+
+    private List<Long> search(String text, EventSortType sort, int offset, int limit) {
+        return searchIndex.search(EventSearchRequest.builder()
+                .text(text)
+                .categories(List.of(category.getId()))
+                .rangeStart(LocalDateTime.now())
+                .sort(sort)
+                .offset(offset)
+                .limit(limit)
+                .build());
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.ewm.event.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.TestFixtures;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.comment.dto.NewCommentDto;
+import ru.practicum.ewm.comment.service.CommentService;
+import ru.practicum.ewm.event.dto.EventFullDto;
+import ru.practicum.ewm.event.repository.EventCommentsCountRepository;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EventCommentsCountReconcilerTest {
+
+    private static final int BATCH_SIZE = 3;
+    private static final int EVENTS = 10;
+
+    @Autowired
+    private EventCommentsCountRepository eventCommentsCountRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EventDetailsCache eventDetailsCache;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private TestFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(userRepository, categoryRepository, eventRepository);
+    }
+
+    @Test
+    void reconcileRepairsCorruptedCountsAcrossBatchesAndInvalidatesCachedPages() {
+        User initiator = fixtures.user();
+        User commenter = fixtures.user();
+        Category category = fixtures.category();
+        List<Long> eventIds = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            Long eventId = fixtures.publishedEvent(initiator, category, 0, false).getId();
+            for (int c = 0; c < i % 4; c++) {
+                commentService.addComment(commenter.getId(), eventId, NewCommentDto.builder()
+                        .text("Comment " + c)
+                        .build());
+            }
+            eventIds.add(eventId);
+        }
+        // Every other event drifts: some counts are too high, some are lost.
+        for (int i = 0; i < EVENTS; i += 2) {
+            jdbcTemplate.update("UPDATE events SET comments_count = ? WHERE id = ?", i % 4 == 0 ? 7 : 0,
+                    eventIds.get(i));
+        }
+        for (Long eventId : eventIds) {
+            eventDetailsCache.get(eventId, id -> EventFullDto.builder().id(id).commentsCount(-1).build());
+        }
+        BatchRecorder recorder = new BatchRecorder(jdbcTemplate);
+
+        new EventCommentsCountReconciler(recorder, transactionTemplate, eventDetailsCache, BATCH_SIZE).reconcile();
+
+        for (int i = 0; i < EVENTS; i++) {
+            assertThat(commentsCount(eventIds.get(i))).as("event %s", i).isEqualTo(i % 4);
+        }
+        assertThat(recorder.batches).hasSizeGreaterThan(EVENTS / BATCH_SIZE)
+                .allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(BATCH_SIZE));
+        assertThat(recorder.batches.stream().flatMap(List::stream)).containsAll(eventIds).doesNotHaveDuplicates();
+        for (Long eventId : eventIds) {
+            assertThat(eventDetailsCache.get(eventId, id -> EventFullDto.builder().id(id).commentsCount(-2).build())
+                    .getCommentsCount()).isEqualTo(-2);
+        }
+    }
+
+    @Test
+    void reconcileKeepsCachedPagesWhenNothingDrifted() {
+        EventCommentsCountReconciler reconciler =
+                new EventCommentsCountReconciler(eventCommentsCountRepository, transactionTemplate,
+                        eventDetailsCache, BATCH_SIZE);
+        reconciler.reconcile();
+        Long eventId = fixtures.publishedEvent(fixtures.user(), fixtures.category(), 0, false).getId();
+        eventDetailsCache.get(eventId, id -> EventFullDto.builder().id(id).commentsCount(-1).build());
+
+        reconciler.reconcile();
+
+        assertThat(eventDetailsCache.get(eventId, id -> EventFullDto.builder().id(id).commentsCount(-2).build())
+                .getCommentsCount()).isEqualTo(-1);
+    }
+
+    private long commentsCount(Long eventId) {
+        return jdbcTemplate.queryForObject("SELECT comments_count FROM events WHERE id = ?", Long.class, eventId);
+    }
+
+    private static class BatchRecorder extends EventCommentsCountRepository {
+
+        private final List<List<Long>> batches = new ArrayList<>();
+
+        BatchRecorder(JdbcTemplate jdbcTemplate) {
+            super(jdbcTemplate);
+        }
+
+        @Override
+        public List<Long> lockBatch(long afterId, int size) {
+            List<Long> batch = super.lockBatch(afterId, size);
+            batches.add(batch);
+            return batch;
+        }
+    }
+}
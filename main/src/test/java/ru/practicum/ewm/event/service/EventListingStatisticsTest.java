@@ -0,0 +1,135 @@
+package ru.practicum.ewm.event.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import ru.practicum.ewm.TestFixtures;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.compilation.dto.NewCompilationDto;
+import ru.practicum.ewm.compilation.service.CompilationService;
+import ru.practicum.ewm.event.enums.EventSortType;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.event.search.EventSearchIndex;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Listing endpoints must run the same number of statements for any page size and, for the short
+ * views, must not load event entities at all.
+ */
+@SpringBootTest
+class EventListingStatisticsTest {
+
+    private static final int EVENTS = 6;
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private CompilationService compilationService;
+
+    @Autowired
+    private EventSearchIndex eventSearchIndex;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User initiator;
+    private Category category;
+    private final List<Long> eventIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        TestFixtures fixtures = new TestFixtures(userRepository, categoryRepository, eventRepository);
+        initiator = fixtures.user();
+        category = fixtures.category();
+        for (int i = 0; i < EVENTS; i++) {
+            Event event = fixtures.publishedEvent(initiator, category, 0, false);
+            eventSearchIndex.index(event);
+            eventIds.add(event.getId());
+        }
+    }
+
+    @Test
+    void publicListingLoadsNoEntities() {
+        assertShortListing(size -> eventService.getPublicEvents(null, List.of(category.getId()), false,
+                LocalDateTime.now(), null, false, EventSortType.EVENT_DATE, null, 0, size, request()).getItems());
+    }
+
+    @Test
+    void publicSearchLoadsNoEntities() {
+        assertShortListing(size -> eventService.getPublicEvents("test", List.of(category.getId()), false,
+                LocalDateTime.now(), null, false, EventSortType.EVENT_DATE, null, 0, size, request()).getItems());
+    }
+
+    @Test
+    void userListingLoadsNoEntities() {
+        assertShortListing(size -> eventService.getUserEvents(initiator.getId(), 0, size));
+    }
+
+    @Test
+    void compilationListingIsConstantInPageSize() {
+        for (int i = 0; i < EVENTS; i++) {
+            compilationService.addCompilation(NewCompilationDto.builder()
+                    .events(new HashSet<>(eventIds.subList(i, EVENTS)))
+                    .pinned(true)
+                    .title("Compilation " + i)
+                    .build());
+        }
+
+        long small = statements(size -> compilationService.getCompilations(true, 0, size), 1);
+        long large = statements(size -> compilationService.getCompilations(true, 0, size), EVENTS);
+
+        assertThat(large).isEqualTo(small);
+    }
+
+    private void assertShortListing(IntFunction<List<?>> listing) {
+        listing.apply(EVENTS);
+
+        long small = statements(listing, 1);
+        long loadedSmall = statistics.getEntityLoadCount();
+        long large = statements(listing, EVENTS);
+        long loadedLarge = statistics.getEntityLoadCount();
+
+        assertThat(large).isEqualTo(small);
+        assertThat(loadedSmall).isZero();
+        assertThat(loadedLarge).isZero();
+        assertThat(statistics.getCollectionFetchCount()).isZero();
+    }
+
+    private long statements(IntFunction<List<?>> listing, int size) {
+        statistics.clear();
+        assertThat(listing.apply(size)).hasSize(size);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/events");
+    }
+}
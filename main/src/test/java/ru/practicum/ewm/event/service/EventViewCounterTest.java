@@ -0,0 +1,112 @@
+package ru.practicum.ewm.event.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.event.repository.EventViewCountRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventViewCounterTest {
+
+    @Mock
+    private EventViewCountRepository eventViewCountRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private EventViewsProvider eventViewsProvider;
+
+    private EventViewCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        counter = new EventViewCounter(eventViewCountRepository, eventRepository, eventViewsProvider);
+    }
+
+    @Test
+    void flushStoresStatsCountsAndFallsBackToDeltas() {
+        List<Event> events = List.of(Event.builder().id(1L).build(), Event.builder().id(2L).build());
+        when(eventRepository.findAllById(any())).thenReturn(events);
+        when(eventViewsProvider.refresh(events)).thenReturn(Map.of(1L, 2));
+
+        counter.increment(1L);
+        counter.increment(1L);
+        counter.increment(1L);
+        counter.increment(2L);
+        counter.flush();
+
+        verify(eventViewCountRepository).setViews(Map.of(1L, 2));
+        verify(eventViewCountRepository).addViews(Map.of(2L, 1L));
+    }
+
+    @Test
+    void flushWithoutViewsTouchesNothing() {
+        counter.flush();
+
+        verify(eventViewCountRepository, never()).setViews(anyMap());
+        verify(eventViewCountRepository, never()).addViews(anyMap());
+    }
+
+    @Test
+    void concurrentIncrementsAreNeverLost() throws Exception {
+        when(eventViewsProvider.refresh(any())).thenReturn(Map.of());
+        AtomicLong flushed = new AtomicLong();
+        doAnswer(invocation -> {
+            Map<Long, Long> deltas = invocation.getArgument(0);
+            deltas.values().forEach(flushed::addAndGet);
+            return null;
+        }).when(eventViewCountRepository).addViews(anyMap());
+
+        int threads = 8;
+        int increments = 20_000;
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            Future<?> flusher = executor.submit(() -> {
+                while (running.get()) {
+                    counter.flush();
+                }
+            });
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < increments; i++) {
+                        counter.increment((long) (i % 3));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+            running.set(false);
+            flusher.get();
+        } finally {
+            executor.shutdown();
+        }
+        counter.flush();
+
+        assertThat(flushed.get()).isEqualTo((long) threads * increments);
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.ewm.event.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.TestFixtures;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.event.repository.EventViewCountRepository;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class EventViewsPersistenceTest {
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private EventViewCountRepository eventViewCountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private TestFixtures fixtures;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(userRepository, categoryRepository, eventRepository);
+    }
+
+    @Test
+    void entitySaveDoesNotOverwriteViewsFlushedAfterLoad() {
+        Long eventId = fixtures.publishedEvent(fixtures.user(), fixtures.category(), 0, false).getId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Event loaded = eventRepository.findById(eventId).orElseThrow();
+            CompletableFuture.runAsync(() -> eventViewCountRepository.setViews(Map.of(eventId, 7))).join();
+            loaded.setTitle("Renamed test event");
+            eventRepository.save(loaded);
+        });
+
+        Event stored = eventRepository.findById(eventId).orElseThrow();
+        assertThat(stored.getTitle()).isEqualTo("Renamed test event");
+        assertThat(stored.getViews()).isEqualTo(7);
+    }
+}
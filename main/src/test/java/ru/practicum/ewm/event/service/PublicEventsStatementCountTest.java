@@ -0,0 +1,83 @@
+package ru.practicum.ewm.event.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import ru.practicum.ewm.TestFixtures;
+import ru.practicum.ewm.SqlCapture;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.event.dto.EventPage;
+import ru.practicum.ewm.event.dto.EventShortDto;
+import ru.practicum.ewm.event.enums.EventSortType;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.request.service.RequestService;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class PublicEventsStatementCountTest {
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category category;
+    private final List<Long> available = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TestFixtures fixtures = new TestFixtures(userRepository, categoryRepository, eventRepository);
+        User initiator = fixtures.user();
+        category = fixtures.category();
+        for (int i = 0; i < 8; i++) {
+            Event event = fixtures.publishedEvent(initiator, category, 1, false);
+            if (i % 2 == 0) {
+                requestService.addRequest(fixtures.user().getId(), event.getId());
+            } else {
+                available.add(event.getId());
+            }
+        }
+        listAvailable(available.size());
+    }
+
+    @Test
+    void onlyAvailablePageIsFullAndTakesOneStatement() {
+        for (int size = 1; size <= available.size(); size++) {
+            AtomicReference<EventPage<EventShortDto>> page = new AtomicReference<>();
+            int pageSize = size;
+
+            List<String> statements = SqlCapture.capture(() -> page.set(listAvailable(pageSize)));
+
+            assertThat(page.get().getItems()).extracting(EventShortDto::getId)
+                    .containsExactlyElementsOf(available.subList(0, size));
+            assertThat(statements).hasSize(1);
+        }
+    }
+
+    private EventPage<EventShortDto> listAvailable(int size) {
+        return eventService.getPublicEvents(null, List.of(category.getId()), false, LocalDateTime.now(), null,
+                true, EventSortType.EVENT_DATE, null, 0, size, new MockHttpServletRequest("GET", "/events"));
+    }
+}
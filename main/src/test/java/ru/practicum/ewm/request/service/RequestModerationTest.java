@@ -0,0 +1,108 @@
+package ru.practicum.ewm.request.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.ewm.TestFixtures;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.exception.ConflictException;
+import ru.practicum.ewm.request.dto.EventRequestStatusUpdateRequest;
+import ru.practicum.ewm.request.dto.EventRequestStatusUpdateResult;
+import ru.practicum.ewm.request.dto.ParticipationRequestDto;
+import ru.practicum.ewm.request.enums.RequestStatus;
+import ru.practicum.ewm.request.model.Request;
+import ru.practicum.ewm.request.repository.RequestRepository;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class RequestModerationTest {
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private TestFixtures fixtures;
+    private User initiator;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(userRepository, categoryRepository, eventRepository);
+        initiator = fixtures.user();
+        category = fixtures.category();
+    }
+
+    @Test
+    void changingRequestsThatAreNotPendingIsConflict() {
+        Event event = fixtures.publishedEvent(initiator, category, 5, true);
+        Long confirmed = requestService.addRequest(fixtures.user().getId(), event.getId()).getId();
+        Long pending = requestService.addRequest(fixtures.user().getId(), event.getId()).getId();
+        update(event, RequestStatus.CONFIRMED, confirmed);
+
+        assertThatThrownBy(() -> update(event, RequestStatus.CONFIRMED, pending, confirmed))
+                .isInstanceOf(ConflictException.class);
+        assertThatThrownBy(() -> update(event, RequestStatus.REJECTED, pending, confirmed))
+                .isInstanceOf(ConflictException.class);
+
+        assertThat(status(pending)).isEqualTo(RequestStatus.PENDING);
+        assertThat(status(confirmed)).isEqualTo(RequestStatus.CONFIRMED);
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getConfirmedRequests()).isEqualTo(1);
+    }
+
+    @Test
+    void participantLimitZeroConfirmsEveryPendingRequest() {
+        Event event = fixtures.publishedEvent(initiator, category, 0, true);
+        Long first = pendingRequest(event);
+        Long second = pendingRequest(event);
+
+        EventRequestStatusUpdateResult result = update(event, RequestStatus.CONFIRMED, first, second);
+
+        assertThat(result.getConfirmedRequests()).extracting(ParticipationRequestDto::getId)
+                .containsExactly(first, second);
+        assertThat(result.getRejectedRequests()).isEmpty();
+        assertThat(eventRepository.findById(event.getId()).orElseThrow().getConfirmedRequests()).isEqualTo(2);
+    }
+
+    private EventRequestStatusUpdateResult update(Event event, RequestStatus status, Long... requestIds) {
+        return requestService.updateEventRequest(initiator.getId(), event.getId(),
+                EventRequestStatusUpdateRequest.builder()
+                        .requestIds(List.of(requestIds))
+                        .status(status)
+                        .build());
+    }
+
+    private Long pendingRequest(Event event) {
+        return requestRepository.save(Request.builder()
+                .event(event)
+                .requester(fixtures.user())
+                .status(RequestStatus.PENDING)
+                .created(LocalDateTime.now())
+                .build()).getId();
+    }
+
+    private RequestStatus status(Long requestId) {
+        return requestRepository.findById(requestId).orElseThrow().getStatus();
+    }
+}
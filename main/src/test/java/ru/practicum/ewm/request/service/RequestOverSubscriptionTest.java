@@ -0,0 +1,92 @@
+package ru.practicum.ewm.request.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.practicum.ewm.TestFixtures;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.request.enums.RequestStatus;
+import ru.practicum.ewm.request.model.Request;
+import ru.practicum.ewm.request.repository.RequestRepository;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@SpringBootTest
+class RequestOverSubscriptionTest {
+
+    private static final int LIMIT = 5;
+    private static final int REQUESTERS = 40;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Test
+    void concurrentRequestsNeverExceedParticipantLimit() throws Exception {
+        TestFixtures fixtures = new TestFixtures(userRepository, categoryRepository, eventRepository);
+        User initiator = fixtures.user();
+        Event event = fixtures.publishedEvent(initiator, fixtures.category(), LIMIT, false);
+        List<User> requesters = new ArrayList<>();
+        for (int i = 0; i < REQUESTERS; i++) {
+            requesters.add(fixtures.user());
+        }
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTERS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (User requester : requesters) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return requestService.addRequest(requester.getId(), event.getId());
+                }));
+            }
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            log.info("{} concurrent requests for {} slots took {} ms, {} requests/s",
+                    REQUESTERS, LIMIT, elapsedMillis, REQUESTERS * 1000L / elapsedMillis);
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<RequestStatus, Long> statuses = requestRepository
+                .findByEventInitiatorIdAndEventId(initiator.getId(), event.getId()).stream()
+                .collect(Collectors.groupingBy(Request::getStatus, Collectors.counting()));
+        int confirmedRequests = eventRepository.findById(event.getId()).orElseThrow().getConfirmedRequests();
+
+        assertThat(confirmedRequests).isEqualTo(LIMIT);
+        assertThat(statuses).containsEntry(RequestStatus.CONFIRMED, (long) LIMIT)
+                .containsEntry(RequestStatus.WAITLISTED, (long) (REQUESTERS - LIMIT));
+    }
+}
@@ -0,0 +1,273 @@
+package ru.practicum.ewm.request.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.ewm.TestFixtures;
+import ru.practicum.ewm.category.model.Category;
+import ru.practicum.ewm.category.repository.CategoryRepository;
+import ru.practicum.ewm.event.model.Event;
+import ru.practicum.ewm.event.repository.EventRepository;
+import ru.practicum.ewm.exception.ConflictException;
+import ru.practicum.ewm.request.dto.EventRequestStatusUpdateRequest;
+import ru.practicum.ewm.request.enums.RequestStatus;
+import ru.practicum.ewm.request.model.Request;
+import ru.practicum.ewm.request.repository.RequestRepository;
+import ru.practicum.ewm.user.model.User;
+import ru.practicum.ewm.user.repository.UserRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+@SpringBootTest
+class RequestWaitlistTest {
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TestFixtures fixtures;
+    private User initiator;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        fixtures = new TestFixtures(userRepository, categoryRepository, eventRepository);
+        initiator = fixtures.user();
+        category = fixtures.category();
+    }
+
+    @Test
+    void cancellingConfirmedRequestPromotesOldestWaiter() {
+        Event event = fixtures.publishedEvent(initiator, category, 1, false);
+        User first = fixtures.user();
+        Long confirmed = requestService.addRequest(first.getId(), event.getId()).getId();
+        Long oldest = requestService.addRequest(fixtures.user().getId(), event.getId()).getId();
+        Long newest = requestService.addRequest(fixtures.user().getId(), event.getId()).getId();
+
+        requestService.cancelRequest(first.getId(), confirmed);
+
+        assertThat(status(confirmed)).isEqualTo(RequestStatus.CANCELED);
+        assertThat(status(oldest)).isEqualTo(RequestStatus.CONFIRMED);
+        assertThat(status(newest)).isEqualTo(RequestStatus.WAITLISTED);
+        assertThat(confirmedRequests(event)).isEqualTo(1);
+    }
+
+    @Test
+    void waitersArePromotedByCreatedThenId() {
+        int limit = 3;
+        Event event = fixtures.publishedEvent(initiator, category, limit, false);
+        List<User> participants = new ArrayList<>();
+        List<Long> confirmed = new ArrayList<>();
+        for (int i = 0; i < limit; i++) {
+            User participant = fixtures.user();
+            participants.add(participant);
+            confirmed.add(requestService.addRequest(participant.getId(), event.getId()).getId());
+        }
+        List<Long> waiters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            waiters.add(requestService.addRequest(fixtures.user().getId(), event.getId()).getId());
+        }
+        // Queue order is (created, id): waiter 2 first, then the tie of waiters 0 and 3 broken by id, then waiter 1.
+        LocalDateTime base = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusMinutes(1);
+        setCreated(waiters.get(2), base);
+        setCreated(waiters.get(0), base.plusSeconds(1));
+        setCreated(waiters.get(3), base.plusSeconds(1));
+        setCreated(waiters.get(1), base.plusSeconds(2));
+
+        List<Long> promoted = new ArrayList<>();
+        for (int i = 0; i < limit; i++) {
+            requestService.cancelRequest(participants.get(i).getId(), confirmed.get(i));
+            waiters.stream()
+                    .filter(id -> status(id) == RequestStatus.CONFIRMED && !promoted.contains(id))
+                    .forEach(promoted::add);
+        }
+
+        assertThat(promoted).containsExactly(waiters.get(2), waiters.get(0), waiters.get(3));
+        assertThat(status(waiters.get(1))).isEqualTo(RequestStatus.WAITLISTED);
+        assertThat(confirmedRequests(event)).isEqualTo(limit);
+    }
+
+    @Test
+    void concurrentCancelsPromoteTheOldestWaiters() throws Exception {
+        int limit = 10;
+        int waiters = 30;
+        Event event = fixtures.publishedEvent(initiator, category, limit, false);
+        List<Callable<?>> cancels = new ArrayList<>();
+        for (int i = 0; i < limit; i++) {
+            User participant = fixtures.user();
+            Long requestId = requestService.addRequest(participant.getId(), event.getId()).getId();
+            cancels.add(() -> requestService.cancelRequest(participant.getId(), requestId));
+        }
+        List<Long> queue = new ArrayList<>();
+        for (int i = 0; i < waiters; i++) {
+            queue.add(requestService.addRequest(fixtures.user().getId(), event.getId()).getId());
+        }
+
+        long elapsedMillis = runConcurrently(cancels);
+        log.info("{} concurrent cancellations promoting waiters took {} ms, {} cancellations/s",
+                limit, elapsedMillis, limit * 1000L / elapsedMillis);
+
+        for (int i = 0; i < waiters; i++) {
+            assertThat(status(queue.get(i)))
+                    .isEqualTo(i < limit ? RequestStatus.CONFIRMED : RequestStatus.WAITLISTED);
+        }
+        assertThat(confirmedRequests(event)).isEqualTo(limit);
+    }
+
+    @Test
+    void concurrentCancelsReleaseTheSlotOnce() throws Exception {
+        Event event = fixtures.publishedEvent(initiator, category, 1, false);
+        User first = fixtures.user();
+        Long confirmed = requestService.addRequest(first.getId(), event.getId()).getId();
+        Long oldest = requestService.addRequest(fixtures.user().getId(), event.getId()).getId();
+        Long newest = requestService.addRequest(fixtures.user().getId(), event.getId()).getId();
+
+        runConcurrently(List.of(
+                () -> requestService.cancelRequest(first.getId(), confirmed),
+                () -> requestService.cancelRequest(first.getId(), confirmed)));
+
+        assertThat(status(oldest)).isEqualTo(RequestStatus.CONFIRMED);
+        assertThat(status(newest)).isEqualTo(RequestStatus.WAITLISTED);
+        assertThat(confirmedRequests(event)).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentCancelsAndRequestsLeaveNoFreeSlotWithWaiters() throws Exception {
+        int limit = 3;
+        int newcomers = 20;
+        Event event = fixtures.publishedEvent(initiator, category, limit, false);
+        List<Callable<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < limit; i++) {
+            User participant = fixtures.user();
+            Long requestId = requestService.addRequest(participant.getId(), event.getId()).getId();
+            tasks.add(() -> requestService.cancelRequest(participant.getId(), requestId));
+        }
+        for (int i = 0; i < newcomers; i++) {
+            User newcomer = fixtures.user();
+            tasks.add(() -> requestService.addRequest(newcomer.getId(), event.getId()));
+        }
+
+        long elapsedMillis = runConcurrently(tasks);
+        log.info("{} concurrent cancellations and requests took {} ms, {} operations/s",
+                tasks.size(), elapsedMillis, tasks.size() * 1000L / elapsedMillis);
+
+        Map<RequestStatus, Long> statuses = statuses(event);
+        assertThat(confirmedRequests(event)).isEqualTo(limit);
+        assertThat(statuses).containsEntry(RequestStatus.CONFIRMED, (long) limit)
+                .containsEntry(RequestStatus.WAITLISTED, (long) (newcomers - limit))
+                .containsEntry(RequestStatus.CANCELED, (long) limit);
+        // Nobody is confirmed ahead of an older waiter: the queue is (created, id) and slots are never left free.
+        List<Request> queue = requestRepository.findByEventInitiatorIdAndEventId(initiator.getId(), event.getId())
+                .stream()
+                .filter(request -> request.getStatus() != RequestStatus.CANCELED)
+                .sorted(Comparator.comparing(Request::getCreated).thenComparing(Request::getId))
+                .collect(Collectors.toList());
+        assertThat(queue).extracting(Request::getStatus)
+                .containsExactlyElementsOf(expectedQueue(limit, newcomers - limit));
+    }
+
+    @Test
+    void onlyPendingRequestsCanBeRejected() {
+        Event event = fixtures.publishedEvent(initiator, category, 1, true);
+        Long pending = requestService.addRequest(fixtures.user().getId(), event.getId()).getId();
+        requestService.updateEventRequest(initiator.getId(), event.getId(), EventRequestStatusUpdateRequest.builder()
+                .requestIds(List.of(pending))
+                .status(RequestStatus.CONFIRMED)
+                .build());
+        Long waitlisted = requestService.addRequest(fixtures.user().getId(), event.getId()).getId();
+        assertThat(status(waitlisted)).isEqualTo(RequestStatus.WAITLISTED);
+
+        for (Long requestId : List.of(pending, waitlisted)) {
+            assertThatThrownBy(() -> requestService.updateEventRequest(initiator.getId(), event.getId(),
+                    EventRequestStatusUpdateRequest.builder()
+                            .requestIds(List.of(requestId))
+                            .status(RequestStatus.REJECTED)
+                            .build()))
+                    .isInstanceOf(ConflictException.class);
+        }
+        assertThat(status(pending)).isEqualTo(RequestStatus.CONFIRMED);
+        assertThat(status(waitlisted)).isEqualTo(RequestStatus.WAITLISTED);
+        assertThat(confirmedRequests(event)).isEqualTo(1);
+    }
+
+    private static long runConcurrently(List<Callable<?>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Callable<?> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<RequestStatus> expectedQueue(int confirmed, int waitlisted) {
+        List<RequestStatus> statuses = new ArrayList<>();
+        for (int i = 0; i < confirmed + waitlisted; i++) {
+            statuses.add(i < confirmed ? RequestStatus.CONFIRMED : RequestStatus.WAITLISTED);
+        }
+        return statuses;
+    }
+
+    private void setCreated(Long requestId, LocalDateTime created) {
+        jdbcTemplate.update("UPDATE requests SET created = ? WHERE id = ?", Timestamp.valueOf(created), requestId);
+    }
+
+    private RequestStatus status(Long requestId) {
+        return requestRepository.findById(requestId).orElseThrow().getStatus();
+    }
+
+    private int confirmedRequests(Event event) {
+        return eventRepository.findById(event.getId()).orElseThrow().getConfirmedRequests();
+    }
+
+    private Map<RequestStatus, Long> statuses(Event event) {
+        return requestRepository.findByEventInitiatorIdAndEventId(initiator.getId(), event.getId()).stream()
+                .collect(Collectors.groupingBy(Request::getStatus, Collectors.counting()));
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.ewm.stats.client;
 
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
@@ -27,6 +28,11 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.POST, path, parameters, body);
     }
 
+    protected <T, R> R post(String path, T body, ParameterizedTypeReference<R> responseType) {
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders());
+        return rest.exchange(path, HttpMethod.POST, requestEntity, responseType).getBody();
+    }
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, @Nullable Map<String, Object> parameters, @Nullable T body) {
         HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders());
 
@@ -0,0 +1,6 @@
+package ru.practicum.ewm.stats.client;
+
+public enum OverflowPolicy {
+    DROP,
+    BLOCK
+}
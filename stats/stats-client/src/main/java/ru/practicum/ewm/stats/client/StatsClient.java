@@ -3,12 +3,17 @@ package ru.practicum.ewm.stats.client;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.ewm.stats.dto.EndpointHitDto;
+import ru.practicum.ewm.stats.dto.StatsQueryDto;
+import ru.practicum.ewm.stats.dto.ViewStatsDto;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @Component
@@ -34,7 +39,22 @@ public class StatsClient extends BaseClient {
         return get("/stats?start={start}&end={end}&uris={uris}&unique={unique}", parameters);
     }
 
+    public List<ViewStatsDto> getStats(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) {
+        StatsQueryDto query = StatsQueryDto.builder()
+                .start(start)
+                .end(end)
+                .uris(uris)
+                .unique(unique)
+                .build();
+        return post("/stats/query", query, new ParameterizedTypeReference<List<ViewStatsDto>>() {
+        });
+    }
+
     public ResponseEntity<Object> addHit(EndpointHitDto endpointHit) {
         return post("/hit", endpointHit);
     }
+
+    public ResponseEntity<Object> addHits(List<EndpointHitDto> endpointHits) {
+        return post("/hits", endpointHits);
+    }
 }
@@ -0,0 +1,155 @@
+package ru.practicum.ewm.stats.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.stats.dto.EndpointHitDto;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Component
+public class StatsHitRecorder {
+
+    private final StatsClient statsClient;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long blockTimeoutMs;
+    private final long shutdownTimeoutMs;
+    private final OverflowPolicy overflowPolicy;
+    private final BlockingQueue<EndpointHitDto> queue;
+    private final Counter droppedHits;
+    private final Counter failedHits;
+    private Thread sender;
+    private volatile boolean running;
+
+    public StatsHitRecorder(StatsClient statsClient,
+                            MeterRegistry meterRegistry,
+                            @Value("${stats-client.buffer.enabled:false}") boolean enabled,
+                            @Value("${stats-client.buffer.capacity:10000}") int capacity,
+                            @Value("${stats-client.buffer.batch-size:500}") int batchSize,
+                            @Value("${stats-client.buffer.flush-interval-ms:1000}") long flushIntervalMs,
+                            @Value("${stats-client.buffer.overflow-policy:DROP}") OverflowPolicy overflowPolicy,
+                            @Value("${stats-client.buffer.block-timeout-ms:100}") long blockTimeoutMs,
+                            @Value("${stats-client.buffer.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.statsClient = statsClient;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+
+        Gauge.builder("stats.client.queue.depth", queue, BlockingQueue::size)
+                .description("Hits waiting to be sent to the stats server")
+                .register(meterRegistry);
+        this.droppedHits = Counter.builder("stats.client.hits.dropped")
+                .description("Hits dropped because the buffer was full")
+                .register(meterRegistry);
+        this.failedHits = Counter.builder("stats.client.hits.failed")
+                .description("Hits lost because the stats server rejected or did not answer a batch")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        sender = new Thread(this::sendLoop, "stats-hit-sender");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (sender == null) {
+            return;
+        }
+        running = false;
+        sender.interrupt();
+        sender.join(shutdownTimeoutMs);
+        if (sender.isAlive()) {
+            log.warn("Stats hit sender did not finish within {} ms, {} hits left unsent",
+                    shutdownTimeoutMs, queue.size());
+        }
+    }
+
+    public void record(EndpointHitDto hit) {
+        if (!enabled) {
+            statsClient.addHit(hit);
+            return;
+        }
+
+        boolean accepted;
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            try {
+                accepted = queue.offer(hit, blockTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                accepted = false;
+            }
+        } else {
+            accepted = queue.offer(hit);
+        }
+
+        if (!accepted) {
+            droppedHits.increment();
+        }
+    }
+
+    private void sendLoop() {
+        List<EndpointHitDto> batch = new ArrayList<>(batchSize);
+        long deadline = System.currentTimeMillis() + flushIntervalMs;
+
+        while (running) {
+            try {
+                long wait = deadline - System.currentTimeMillis();
+                EndpointHitDto hit = wait > 0 ? queue.poll(wait, TimeUnit.MILLISECONDS) : null;
+                if (hit != null) {
+                    batch.add(hit);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            if (batch.size() >= batchSize || System.currentTimeMillis() >= deadline) {
+                send(batch);
+                batch.clear();
+                deadline = System.currentTimeMillis() + flushIntervalMs;
+            }
+        }
+
+        queue.drainTo(batch);
+        for (int i = 0; i < batch.size(); i += batchSize) {
+            send(batch.subList(i, Math.min(i + batchSize, batch.size())));
+        }
+    }
+
+    private void send(List<EndpointHitDto> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            if (!statsClient.addHits(new ArrayList<>(batch)).getStatusCode().is2xxSuccessful()) {
+                failedHits.increment(batch.size());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to send {} hits to the stats server: {}", batch.size(), e.getMessage());
+            failedHits.increment(batch.size());
+        }
+    }
+}
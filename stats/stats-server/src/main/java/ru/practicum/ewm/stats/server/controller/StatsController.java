@@ -2,8 +2,12 @@ package ru.practicum.ewm.stats.server.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.ewm.stats.dto.EndpointHitDto;
+import ru.practicum.ewm.stats.dto.StatsQueryDto;
 import ru.practicum.ewm.stats.dto.ViewStatsDto;
 import ru.practicum.ewm.stats.server.service.StatsService;
 
@@ -13,6 +17,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class StatsController {
 
+    static final String ESTIMATED_HEADER = "X-Stats-Estimated";
+
     private final StatsService statsService;
 
     @PostMapping("/hit")
@@ -21,12 +27,49 @@ public class StatsController {
         return statsService.create(endpointHitDto);
     }
 
+    @PostMapping("/hits")
+    @ResponseStatus(HttpStatus.CREATED)
+    public void createAll(@RequestBody List<EndpointHitDto> endpointHitDtos) {
+        statsService.createAll(endpointHitDtos);
+    }
+
     @GetMapping("/stats")
-    @ResponseStatus(HttpStatus.OK)
-    public List<ViewStatsDto> getStats(@RequestParam("start") String start,
+    public ResponseEntity<List<ViewStatsDto>> getStats(@RequestParam("start") String start,
                                        @RequestParam("end") String end,
                                        @RequestParam(value = "uris", defaultValue = "") List<String> uris,
-                                       @RequestParam(value = "unique", defaultValue = "false") Boolean unique) {
-        return statsService.getStats(start, end, uris, unique);
+                                       @RequestParam(value = "unique", defaultValue = "false") Boolean unique,
+                                       @RequestParam(value = "approximate", defaultValue = "false") Boolean approximate) {
+        List<ViewStatsDto> stats = statsService.getStats(start, end, uris, unique, approximate);
+        return withEstimate(stats, statsService.isEstimated(start, unique, approximate));
+    }
+
+    @PostMapping("/stats/query")
+    public ResponseEntity<List<ViewStatsDto>> query(@RequestBody StatsQueryDto query) {
+        List<ViewStatsDto> stats = statsService.getStats(query);
+        return withEstimate(stats, statsService.isEstimated(query));
+    }
+
+    @GetMapping("/stats/top")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ViewStatsDto> getTop(@RequestParam("app") String app,
+                                     @RequestParam(value = "k", defaultValue = "10") Integer k,
+                                     @RequestParam(value = "window", defaultValue = "1h") String window) {
+        return statsService.getTop(app, k, window);
+    }
+
+    @GetMapping(value = "/stats/timeseries", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getTimeSeries(@RequestParam("start") String start,
+                                                               @RequestParam("end") String end,
+                                                               @RequestParam(value = "uris", defaultValue = "")
+                                                                   List<String> uris,
+                                                               @RequestParam(value = "step", defaultValue = "1h")
+                                                                   String step) {
+        return ResponseEntity.ok(statsService.getTimeSeries(start, end, uris, step));
+    }
+
+    private static ResponseEntity<List<ViewStatsDto>> withEstimate(List<ViewStatsDto> stats, boolean estimated) {
+        return ResponseEntity.ok()
+                .header(ESTIMATED_HEADER, String.valueOf(estimated))
+                .body(stats);
     }
 }
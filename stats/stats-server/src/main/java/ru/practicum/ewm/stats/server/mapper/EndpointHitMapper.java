@@ -11,7 +11,7 @@ public class EndpointHitMapper {
                 .id(endpointHit.getId())
                 .app(endpointHit.getApp())
                 .uri(endpointHit.getUri())
-                .ip(endpointHit.getIp())
+                .ip(IpAddressMapper.toText(endpointHit.getIp()))
                 .timestamp(endpointHit.getTimestamp())
                 .build();
     }
@@ -21,7 +21,7 @@ public class EndpointHitMapper {
                 .id(endPointHitDto.getId())
                 .app(endPointHitDto.getApp())
                 .uri(endPointHitDto.getUri())
-                .ip(endPointHitDto.getIp())
+                .ip(IpAddressMapper.toBytes(endPointHitDto.getIp()))
                 .timestamp(endPointHitDto.getTimestamp())
                 .build();
     }
@@ -0,0 +1,63 @@
+package ru.practicum.ewm.stats.server.mapper;
+
+import lombok.experimental.UtilityClass;
+import ru.practicum.ewm.stats.server.exception.BadRequestException;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+@UtilityClass
+public class IpAddressMapper {
+
+    private static final int IPV4_LENGTH = 4;
+
+    public static byte[] toBytes(String ip) {
+        if (ip == null) {
+            return null;
+        }
+        if (ip.indexOf(':') < 0) {
+            return parseIpv4(ip);
+        }
+        try {
+            return InetAddress.getByName("[" + ip + "]").getAddress();
+        } catch (UnknownHostException e) {
+            throw invalid(ip);
+        }
+    }
+
+    public static String toText(byte[] ip) {
+        if (ip == null) {
+            return null;
+        }
+        try {
+            return InetAddress.getByAddress(ip).getHostAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Stored ip address has invalid length " + ip.length, e);
+        }
+    }
+
+    private static byte[] parseIpv4(String ip) {
+        String[] octets = ip.split("\\.", -1);
+        if (octets.length != IPV4_LENGTH) {
+            throw invalid(ip);
+        }
+
+        byte[] bytes = new byte[IPV4_LENGTH];
+        for (int i = 0; i < IPV4_LENGTH; i++) {
+            String octet = octets[i];
+            if (octet.isEmpty() || octet.length() > 3 || !octet.chars().allMatch(Character::isDigit)) {
+                throw invalid(ip);
+            }
+            int value = Integer.parseInt(octet);
+            if (value > 255) {
+                throw invalid(ip);
+            }
+            bytes[i] = (byte) value;
+        }
+        return bytes;
+    }
+
+    private static BadRequestException invalid(String ip) {
+        return new BadRequestException("Invalid ip address: " + ip);
+    }
+}
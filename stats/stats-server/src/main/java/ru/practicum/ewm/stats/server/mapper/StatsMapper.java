@@ -2,8 +2,11 @@ package ru.practicum.ewm.stats.server.mapper;
 
 import lombok.experimental.UtilityClass;
 import ru.practicum.ewm.stats.dto.ViewStatsDto;
+import ru.practicum.ewm.stats.server.model.HitCount;
 import ru.practicum.ewm.stats.server.model.ViewStats;
 
+import java.util.Map;
+
 @UtilityClass
 public class StatsMapper {
     public static ViewStatsDto toStatsDto(ViewStats stats) {
@@ -13,4 +16,12 @@ public class StatsMapper {
                 .hits(stats.getHits())
                 .build();
     }
+
+    public static ViewStatsDto toStatsDto(HitCount count, Map<Integer, String> apps, Map<Integer, String> uris) {
+        return ViewStatsDto.builder()
+                .app(apps.get(count.getAppId()))
+                .uri(uris.get(count.getUriId()))
+                .hits(count.getHits())
+                .build();
+    }
 }
@@ -0,0 +1,9 @@
+package ru.practicum.ewm.stats.server.model;
+
+import lombok.Value;
+
+@Value
+public class AppUri {
+    Integer appId;
+    Integer uriId;
+}
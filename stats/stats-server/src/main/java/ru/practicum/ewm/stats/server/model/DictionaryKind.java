@@ -0,0 +1,13 @@
+package ru.practicum.ewm.stats.server.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum DictionaryKind {
+    APP("apps"),
+    URI("uris");
+
+    private final String table;
+}
@@ -2,31 +2,19 @@ package ru.practicum.ewm.stats.server.model;
 
 import lombok.*;
 
-import javax.persistence.*;
 import java.time.LocalDateTime;
 
-@Entity
 @Getter
 @Setter
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "hits")
 public class EndpointHit {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-
-    @Column(name = "app")
     private String app;
-
-    @Column(name = "uri")
     private String uri;
-
-    @Column(name = "ip")
-    private String ip;
-
-    @Column(name = "timestamp")
+    private Integer appId;
+    private Integer uriId;
+    private byte[] ip;
     private LocalDateTime timestamp;
 }
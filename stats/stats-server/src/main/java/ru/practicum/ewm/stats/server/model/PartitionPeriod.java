@@ -0,0 +1,48 @@
+package ru.practicum.ewm.stats.server.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+@Getter
+@RequiredArgsConstructor
+public enum PartitionPeriod {
+    DAY(ChronoUnit.DAYS, "yyyyMMdd"),
+    MONTH(ChronoUnit.MONTHS, "yyyyMM");
+
+    private static final String TABLE_PREFIX = "hits_";
+
+    private final ChronoUnit unit;
+    private final String suffixPattern;
+
+    public LocalDateTime floor(LocalDateTime time) {
+        LocalDateTime day = time.truncatedTo(ChronoUnit.DAYS);
+        return this == MONTH ? day.withDayOfMonth(1) : day;
+    }
+
+    public LocalDateTime next(LocalDateTime start) {
+        return start.plus(1, unit);
+    }
+
+    public String tableName(LocalDateTime start) {
+        return TABLE_PREFIX + DateTimeFormatter.ofPattern(suffixPattern).format(start);
+    }
+
+    public Optional<LocalDateTime> parseTableName(String tableName) {
+        String name = tableName.toLowerCase();
+        String suffix = name.startsWith(TABLE_PREFIX) ? name.substring(TABLE_PREFIX.length()) : "";
+        if (suffix.length() != suffixPattern.length() || !suffix.chars().allMatch(Character::isDigit)) {
+            return Optional.empty();
+        }
+
+        int year = Integer.parseInt(suffix.substring(0, 4));
+        int month = Integer.parseInt(suffix.substring(4, 6));
+        int day = this == MONTH ? 1 : Integer.parseInt(suffix.substring(6, 8));
+        return Optional.of(LocalDate.of(year, month, day).atStartOfDay());
+    }
+}
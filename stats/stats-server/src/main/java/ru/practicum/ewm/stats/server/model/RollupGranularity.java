@@ -0,0 +1,27 @@
+package ru.practicum.ewm.stats.server.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Getter
+@RequiredArgsConstructor
+public enum RollupGranularity {
+    MINUTE("hits_minute", ChronoUnit.MINUTES, "minute"),
+    HOUR("hits_hour", ChronoUnit.HOURS, "hour");
+
+    private final String table;
+    private final ChronoUnit unit;
+    private final String truncation;
+
+    public LocalDateTime floor(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public LocalDateTime ceil(LocalDateTime time) {
+        LocalDateTime floor = floor(time);
+        return floor.equals(time) ? floor : floor.plus(1, unit);
+    }
+}
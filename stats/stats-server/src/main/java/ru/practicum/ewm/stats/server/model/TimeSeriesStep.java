@@ -0,0 +1,32 @@
+package ru.practicum.ewm.stats.server.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.ewm.stats.server.exception.BadRequestException;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+@Getter
+@RequiredArgsConstructor
+public enum TimeSeriesStep {
+    MINUTE("1m", ChronoUnit.MINUTES, RollupGranularity.MINUTE),
+    HOUR("1h", ChronoUnit.HOURS, RollupGranularity.HOUR),
+    DAY("1d", ChronoUnit.DAYS, RollupGranularity.HOUR);
+
+    private final String code;
+    private final ChronoUnit unit;
+    private final RollupGranularity source;
+
+    public LocalDateTime floor(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    public static TimeSeriesStep fromCode(String code) {
+        return Arrays.stream(values())
+                .filter(step -> step.code.equals(code))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Unknown step: " + code));
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.ewm.stats.server.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.ewm.stats.server.exception.BadRequestException;
+
+import java.util.Arrays;
+
+@Getter
+@RequiredArgsConstructor
+public enum TopWindow {
+    HOUR("1h", 60, 60),
+    DAY("1d", 24, 3600);
+
+    private final String code;
+    private final int slotCount;
+    private final long slotSeconds;
+
+    public static TopWindow fromCode(String code) {
+        return Arrays.stream(values())
+                .filter(window -> window.code.equals(code))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Unknown window: " + code));
+    }
+}
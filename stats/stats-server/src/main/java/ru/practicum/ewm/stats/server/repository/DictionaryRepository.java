@@ -0,0 +1,102 @@
+package ru.practicum.ewm.stats.server.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.ewm.stats.server.model.DictionaryKind;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class DictionaryRepository {
+
+    private static final String POSTGRES_INSERT_IF_ABSENT = "INSERT INTO %1$s (name) VALUES (?) " +
+            "ON CONFLICT (name) DO NOTHING";
+
+    private static final String H2_INSERT_IF_ABSENT = "MERGE INTO %1$s AS d " +
+            "USING (VALUES (CAST(? AS VARCHAR))) AS s (name) " +
+            "ON d.name = s.name " +
+            "WHEN NOT MATCHED THEN INSERT (name) VALUES (s.name)";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final String insertIfAbsent;
+
+    public DictionaryRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                                DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.insertIfAbsent = SqlDialect.of(dataSource) == SqlDialect.H2 ? H2_INSERT_IF_ABSENT : POSTGRES_INSERT_IF_ABSENT;
+    }
+
+    public Map<String, Integer> findIds(DictionaryKind kind, Collection<String> names) {
+        Map<String, Integer> ids = new HashMap<>();
+        if (names.isEmpty()) {
+            return ids;
+        }
+
+        namedJdbcTemplate.query("SELECT id, name FROM " + kind.getTable() + " WHERE name = ANY(:names)",
+                new MapSqlParameterSource("names", names.toArray(new String[0])),
+                rs -> {
+                    ids.put(rs.getString("name"), rs.getInt("id"));
+                });
+        return ids;
+    }
+
+    public Map<Integer, String> findNames(DictionaryKind kind, Collection<Integer> ids) {
+        Map<Integer, String> names = new HashMap<>();
+        if (ids.isEmpty()) {
+            return names;
+        }
+
+        namedJdbcTemplate.query("SELECT id, name FROM " + kind.getTable() + " WHERE id = ANY(:ids)",
+                new MapSqlParameterSource("ids", ids.toArray(new Integer[0])),
+                rs -> {
+                    names.put(rs.getInt("id"), rs.getString("name"));
+                });
+        return names;
+    }
+
+    public void restore(DictionaryKind kind, Map<Integer, String> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, String> stored = findNames(kind, entries.keySet());
+
+        List<Map.Entry<Integer, String>> missing = new ArrayList<>();
+        for (Map.Entry<Integer, String> entry : entries.entrySet()) {
+            String name = stored.get(entry.getKey());
+            if (name == null) {
+                missing.add(entry);
+            } else if (!name.equals(entry.getValue())) {
+                throw new IllegalStateException(String.format("%s id %d is '%s' in %s but '%s' in the hit log",
+                        kind, entry.getKey(), name, kind.getTable(), entry.getValue()));
+            }
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO " + kind.getTable() + " (id, name) VALUES (?, ?)", missing, BATCH_SIZE,
+                (ps, entry) -> {
+                    ps.setInt(1, entry.getKey());
+                    ps.setString(2, entry.getValue());
+                });
+        Integer maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + kind.getTable(), Integer.class);
+        jdbcTemplate.execute("ALTER TABLE " + kind.getTable() + " ALTER COLUMN id RESTART WITH " + (maxId + 1));
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void insertIfAbsent(DictionaryKind kind, List<String> names) {
+        jdbcTemplate.batchUpdate(String.format(insertIfAbsent, kind.getTable()), names, BATCH_SIZE,
+                (ps, name) -> ps.setString(1, name));
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.ewm.stats.server.repository;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.stats.server.model.PartitionPeriod;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps raw hits in one table per day or month. On PostgreSQL these are declarative range partitions
+ * of {@code hits}, so the planner prunes them itself; on H2 they are standalone tables and reads are
+ * routed to a UNION ALL of only the tables that overlap the requested range.
+ */
+@Slf4j
+@Repository
+public class HitPartitionRepository {
+
+    private static final DateTimeFormatter BOUND_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String POSTGRES_CREATE = "CREATE TABLE IF NOT EXISTS %1$s PARTITION OF hits " +
+            "FOR VALUES FROM ('%2$s') TO ('%3$s')";
+
+    private static final String H2_CREATE = "CREATE TABLE IF NOT EXISTS %1$s (" +
+            "id BIGINT DEFAULT NEXT VALUE FOR hits_id_seq NOT NULL, " +
+            "app_id INTEGER, " +
+            "uri_id INTEGER, " +
+            "ip BYTEA, " +
+            "timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL, " +
+            "CONSTRAINT pk_%1$s PRIMARY KEY (id), " +
+            "CONSTRAINT ck_%1$s CHECK (timestamp >= TIMESTAMP '%2$s' AND timestamp < TIMESTAMP '%3$s'))";
+
+    private static final String H2_CREATE_INDEX = "CREATE INDEX IF NOT EXISTS idx_%1$s_timestamp ON %1$s (timestamp)";
+
+    private static final String SELECT_TABLES = "SELECT table_name FROM information_schema.tables " +
+            "WHERE table_schema = CURRENT_SCHEMA";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate newTransaction;
+    private final SqlDialect dialect;
+    @Getter
+    private final PartitionPeriod period;
+    private final NavigableSet<LocalDateTime> partitions = new ConcurrentSkipListSet<>();
+
+    public HitPartitionRepository(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  DataSource dataSource,
+                                  @Value("${stats.partition.period:DAY}") PartitionPeriod period) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.dialect = SqlDialect.of(dataSource);
+        this.period = period;
+
+        jdbcTemplate.queryForList(SELECT_TABLES, String.class).stream()
+                .map(period::parseTableName)
+                .flatMap(Optional::stream)
+                .forEach(partitions::add);
+    }
+
+    public void ensurePartitions(Collection<LocalDateTime> timestamps) {
+        List<LocalDateTime> missing = timestamps.stream()
+                .map(period::floor)
+                .distinct()
+                .filter(start -> !partitions.contains(start))
+                .sorted()
+                .collect(Collectors.toList());
+
+        for (LocalDateTime start : missing) {
+            newTransaction.executeWithoutResult(status -> create(start));
+            partitions.add(start);
+            log.info("Created hits partition {}", period.tableName(start));
+        }
+    }
+
+    public String getTable(LocalDateTime timestamp) {
+        return period.tableName(period.floor(timestamp));
+    }
+
+    public String getSource(LocalDateTime from, LocalDateTime to) {
+        if (dialect == SqlDialect.POSTGRESQL) {
+            return "hits";
+        }
+
+        List<String> tables = partitions.subSet(period.floor(from), true, to, false).stream()
+                .map(period::tableName)
+                .collect(Collectors.toList());
+        if (tables.isEmpty()) {
+            return "hits";
+        }
+        if (tables.size() == 1) {
+            return tables.get(0);
+        }
+        return tables.stream()
+                .map(table -> "SELECT * FROM " + table)
+                .collect(Collectors.joining(" UNION ALL ", "(", ") AS hits"));
+    }
+
+    public List<LocalDateTime> getPartitionsBefore(LocalDateTime horizon) {
+        return new ArrayList<>(partitions.headSet(horizon, false));
+    }
+
+    public void drop(LocalDateTime start) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + period.tableName(start));
+        partitions.remove(start);
+    }
+
+    private void create(LocalDateTime start) {
+        String table = period.tableName(start);
+        String from = BOUND_FORMATTER.format(start);
+        String to = BOUND_FORMATTER.format(period.next(start));
+
+        if (dialect == SqlDialect.POSTGRESQL) {
+            jdbcTemplate.execute(String.format(POSTGRES_CREATE, table, from, to));
+        } else {
+            jdbcTemplate.execute(String.format(H2_CREATE, table, from, to));
+            jdbcTemplate.execute(String.format(H2_CREATE_INDEX, table));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ru.practicum.ewm.stats.server.repository;
+
+import ru.practicum.ewm.stats.server.model.EndpointHit;
+import ru.practicum.ewm.stats.server.model.HitCount;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface HitStorage {
+
+    EndpointHit save(EndpointHit hit);
+
+    void saveAllInBatch(List<EndpointHit> hits);
+
+    List<HitCount> getStats(LocalDateTime from, LocalDateTime to, List<Integer> uriIds);
+
+    List<HitCount> getUniqueStats(LocalDateTime from, LocalDateTime to, List<Integer> uriIds);
+
+    List<EndpointHit> getDistinctIps(LocalDateTime from, LocalDateTime to, List<Integer> uriIds);
+
+    void maintain(LocalDateTime horizon);
+}
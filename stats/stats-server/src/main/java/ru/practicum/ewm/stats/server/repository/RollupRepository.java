@@ -0,0 +1,169 @@
+package ru.practicum.ewm.stats.server.repository;
+
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.stats.server.model.EndpointHit;
+import ru.practicum.ewm.stats.server.model.HitCount;
+import ru.practicum.ewm.stats.server.model.RollupGranularity;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Repository
+public class RollupRepository {
+
+    private static final String POSTGRES_UPSERT = "INSERT INTO %1$s AS r (app_id, uri_id, bucket, hits) " +
+            "VALUES (?, ?, ?, ?) ON CONFLICT (app_id, uri_id, bucket) DO UPDATE SET hits = r.hits + EXCLUDED.hits";
+
+    private static final String H2_UPSERT = "MERGE INTO %1$s AS r " +
+            "USING (VALUES (CAST(? AS INTEGER), CAST(? AS INTEGER), CAST(? AS TIMESTAMP), CAST(? AS BIGINT))) " +
+            "AS s (app_id, uri_id, bucket, hits) " +
+            "ON r.app_id = s.app_id AND r.uri_id = s.uri_id AND r.bucket = s.bucket " +
+            "WHEN MATCHED THEN UPDATE SET r.hits = r.hits + s.hits " +
+            "WHEN NOT MATCHED THEN INSERT (app_id, uri_id, bucket, hits) VALUES (s.app_id, s.uri_id, s.bucket, s.hits)";
+
+    private static final String REBUILD = "INSERT INTO %1$s (app_id, uri_id, bucket, hits) " +
+            "SELECT app_id, uri_id, DATE_TRUNC('%2$s', timestamp), COUNT(*) FROM %3$s " +
+            "WHERE app_id IS NOT NULL AND uri_id IS NOT NULL " +
+            "GROUP BY app_id, uri_id, DATE_TRUNC('%2$s', timestamp)";
+
+    private static final int BATCH_SIZE = 500;
+    private static final int SERIES_FETCH_SIZE = 1000;
+
+    private static final Comparator<RollupRow> ROW_ORDER = Comparator.comparingInt(RollupRow::getAppId)
+            .thenComparingInt(RollupRow::getUriId)
+            .thenComparing(RollupRow::getBucket);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final NamedParameterJdbcTemplate seriesJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final String upsert;
+
+    public RollupRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                            DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.upsert = SqlDialect.of(dataSource) == SqlDialect.H2 ? H2_UPSERT : POSTGRES_UPSERT;
+
+        JdbcTemplate seriesTemplate = new JdbcTemplate(dataSource);
+        seriesTemplate.setFetchSize(SERIES_FETCH_SIZE);
+        this.seriesJdbcTemplate = new NamedParameterJdbcTemplate(seriesTemplate);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void addHits(List<EndpointHit> hits) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            increment(granularity, aggregate(granularity, hits));
+        }
+    }
+
+    public boolean isEmpty() {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            List<Integer> rows = jdbcTemplate.queryForList("SELECT 1 FROM " + granularity.getTable() + " LIMIT 1",
+                    Integer.class);
+            if (!rows.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void deleteFrom(LocalDateTime from) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            jdbcTemplate.update("DELETE FROM " + granularity.getTable() + " WHERE bucket >= ?",
+                    Timestamp.valueOf(from));
+        }
+    }
+
+    public void rebuild(String sourceTable, LocalDateTime from, LocalDateTime to) {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            jdbcTemplate.update("DELETE FROM " + granularity.getTable() + " WHERE bucket >= ? AND bucket < ?",
+                    Timestamp.valueOf(from), Timestamp.valueOf(to));
+            jdbcTemplate.update(String.format(REBUILD, granularity.getTable(), granularity.getTruncation(), sourceTable));
+        }
+    }
+
+    public List<HitCount> getStats(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                                    List<Integer> uriIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+
+        StringBuilder sql = new StringBuilder("SELECT app_id, uri_id, SUM(hits) AS hits FROM ")
+                .append(granularity.getTable())
+                .append(" WHERE bucket >= :from AND bucket < :to");
+        if (!uriIds.isEmpty()) {
+            sql.append(" AND uri_id = ANY(:uriIds)");
+            params.addValue("uriIds", uriIds.toArray(new Integer[0]));
+        }
+        sql.append(" GROUP BY app_id, uri_id");
+
+        return namedJdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> new HitCount(
+                rs.getInt("app_id"),
+                rs.getInt("uri_id"),
+                rs.getLong("hits")));
+    }
+
+    public void streamSeries(RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                             List<Integer> uriIds, RowCallbackHandler handler) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+
+        StringBuilder sql = new StringBuilder("SELECT app_id, uri_id, bucket, hits FROM ")
+                .append(granularity.getTable())
+                .append(" WHERE bucket >= :from AND bucket < :to");
+        if (!uriIds.isEmpty()) {
+            sql.append(" AND uri_id = ANY(:uriIds)");
+            params.addValue("uriIds", uriIds.toArray(new Integer[0]));
+        }
+        sql.append(" ORDER BY app_id, uri_id, bucket");
+
+        // PgJDBC only honours the fetch size with autocommit off, i.e. inside a transaction.
+        readOnlyTransaction.executeWithoutResult(status ->
+                seriesJdbcTemplate.query(sql.toString(), params, handler));
+    }
+
+    private List<RollupRow> aggregate(RollupGranularity granularity, List<EndpointHit> hits) {
+        Map<RollupRow, Long> counts = hits.stream()
+                .filter(hit -> hit.getAppId() != null && hit.getUriId() != null && hit.getTimestamp() != null)
+                .map(hit -> new RollupRow(hit.getAppId(), hit.getUriId(), granularity.floor(hit.getTimestamp()), 0))
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+        return counts.entrySet().stream()
+                .map(e -> new RollupRow(e.getKey().getAppId(), e.getKey().getUriId(), e.getKey().getBucket(), e.getValue()))
+                .sorted(ROW_ORDER)
+                .collect(Collectors.toList());
+    }
+
+    private void increment(RollupGranularity granularity, List<RollupRow> rows) {
+        jdbcTemplate.batchUpdate(String.format(upsert, granularity.getTable()), rows, BATCH_SIZE, (ps, row) -> {
+            ps.setInt(1, row.getAppId());
+            ps.setInt(2, row.getUriId());
+            ps.setTimestamp(3, Timestamp.valueOf(row.getBucket()));
+            ps.setLong(4, row.getHits());
+        });
+    }
+
+    @Value
+    @EqualsAndHashCode(exclude = "hits")
+    private static class RollupRow {
+        int appId;
+        int uriId;
+        LocalDateTime bucket;
+        long hits;
+    }
+}
@@ -0,0 +1,138 @@
+package ru.practicum.ewm.stats.server.repository;
+
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.ewm.stats.server.model.AppUri;
+import ru.practicum.ewm.stats.server.model.EndpointHit;
+import ru.practicum.ewm.stats.server.model.RollupGranularity;
+import ru.practicum.ewm.stats.server.sketch.HyperLogLog;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Repository
+public class SketchRepository {
+
+    private static final String INSERT = "INSERT INTO hits_hll (app_id, uri_id, bucket, registers) VALUES (?, ?, ?, ?)";
+
+    private static final int BATCH_SIZE = 500;
+    private static final int FETCH_SIZE = 1000;
+
+    private static final Comparator<SketchKey> KEY_ORDER = Comparator.comparingInt(SketchKey::getAppId)
+            .thenComparingInt(SketchKey::getUriId)
+            .thenComparing(SketchKey::getBucket);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public SketchRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                            DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    /**
+     * Replaces the sketches of the hour starting at {@code bucket} with ones built from its distinct
+     * (app, uri, ip) triples.
+     */
+    public void replaceBucket(LocalDateTime bucket, List<EndpointHit> distinctIps) {
+        jdbcTemplate.update("DELETE FROM hits_hll WHERE bucket = ?", Timestamp.valueOf(bucket));
+
+        Map<SketchKey, HyperLogLog> sketches = new TreeMap<>(KEY_ORDER);
+        for (EndpointHit hit : distinctIps) {
+            if (hit.getAppId() == null || hit.getUriId() == null || hit.getIp() == null) {
+                continue;
+            }
+            sketches.computeIfAbsent(new SketchKey(hit.getAppId(), hit.getUriId(), bucket), k -> new HyperLogLog())
+                    .add(hit.getIp());
+        }
+        insert(sketches);
+    }
+
+    /**
+     * Replaces the sketches of [from, to) with ones built from the raw hits in {@code sourceTable}.
+     * Rows are read with a cursor, ordered by (app, uri), so only one uri's hourly sketches are held in memory.
+     * Must run inside a transaction for PostgreSQL to honour the fetch size.
+     */
+    public void rebuild(String sourceTable, LocalDateTime from, LocalDateTime to) {
+        jdbcTemplate.update("DELETE FROM hits_hll WHERE bucket >= ? AND bucket < ?",
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+
+        TreeMap<SketchKey, HyperLogLog> sketches = new TreeMap<>(KEY_ORDER);
+        streamingJdbcTemplate.query("SELECT app_id, uri_id, ip, timestamp FROM " + sourceTable +
+                " WHERE app_id IS NOT NULL AND uri_id IS NOT NULL AND ip IS NOT NULL " +
+                "ORDER BY app_id, uri_id", rs -> {
+            SketchKey key = new SketchKey(rs.getInt("app_id"), rs.getInt("uri_id"),
+                    RollupGranularity.HOUR.floor(rs.getTimestamp("timestamp").toLocalDateTime()));
+            if (!sketches.isEmpty() && !sameUri(key, sketches.firstKey())) {
+                insert(sketches);
+            }
+            sketches.computeIfAbsent(key, k -> new HyperLogLog()).add(rs.getBytes("ip"));
+        });
+        insert(sketches);
+    }
+
+    public Optional<LocalDateTime> findLatestBucket() {
+        Timestamp latest = jdbcTemplate.queryForObject("SELECT MAX(bucket) FROM hits_hll", Timestamp.class);
+        return Optional.ofNullable(latest).map(Timestamp::toLocalDateTime);
+    }
+
+    public int deleteBefore(LocalDateTime horizon) {
+        return jdbcTemplate.update("DELETE FROM hits_hll WHERE bucket < ?", Timestamp.valueOf(horizon));
+    }
+
+    public void mergeSketches(Map<AppUri, HyperLogLog> sketches, LocalDateTime from, LocalDateTime to,
+                              List<Integer> uriIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+
+        StringBuilder sql = new StringBuilder("SELECT app_id, uri_id, registers FROM hits_hll ")
+                .append("WHERE bucket >= :from AND bucket < :to");
+        if (!uriIds.isEmpty()) {
+            sql.append(" AND uri_id = ANY(:uriIds)");
+            params.addValue("uriIds", uriIds.toArray(new Integer[0]));
+        }
+
+        namedJdbcTemplate.query(sql.toString(), params, rs -> {
+            AppUri key = new AppUri(rs.getInt("app_id"), rs.getInt("uri_id"));
+            sketches.computeIfAbsent(key, k -> new HyperLogLog())
+                    .merge(HyperLogLog.fromBytes(rs.getBytes("registers")));
+        });
+    }
+
+    private void insert(Map<SketchKey, HyperLogLog> sketches) {
+        jdbcTemplate.batchUpdate(INSERT, new ArrayList<>(sketches.entrySet()), BATCH_SIZE, (ps, entry) -> {
+            setKey(ps, entry.getKey(), 1);
+            ps.setBytes(4, entry.getValue().toBytes());
+        });
+        sketches.clear();
+    }
+
+    private static boolean sameUri(SketchKey a, SketchKey b) {
+        return a.getAppId() == b.getAppId() && a.getUriId() == b.getUriId();
+    }
+
+    private static void setKey(PreparedStatement ps, SketchKey key, int firstIndex) throws SQLException {
+        ps.setInt(firstIndex, key.getAppId());
+        ps.setInt(firstIndex + 1, key.getUriId());
+        ps.setTimestamp(firstIndex + 2, Timestamp.valueOf(key.getBucket()));
+    }
+
+    @Value
+    private static class SketchKey {
+        int appId;
+        int uriId;
+        LocalDateTime bucket;
+    }
+}
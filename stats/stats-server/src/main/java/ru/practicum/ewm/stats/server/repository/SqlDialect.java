@@ -0,0 +1,21 @@
+package ru.practicum.ewm.stats.server.repository;
+
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+public enum SqlDialect {
+    POSTGRESQL,
+    H2;
+
+    public static SqlDialect of(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "H2".equalsIgnoreCase(product) ? H2 : POSTGRESQL;
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Unable to detect the database type", e);
+        }
+    }
+}
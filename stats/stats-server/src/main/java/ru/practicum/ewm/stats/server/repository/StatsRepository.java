@@ -1,45 +1,150 @@
 package ru.practicum.ewm.stats.server.repository;
 
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.ewm.stats.server.model.EndpointHit;
-import ru.practicum.ewm.stats.server.model.ViewStats;
+import ru.practicum.ewm.stats.server.model.HitCount;
+import ru.practicum.ewm.stats.server.model.PartitionPeriod;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Repository
-public interface StatsRepository extends JpaRepository<EndpointHit, Long> {
-
-    @Query(value = "SELECT NEW ru.practicum.ewm.stats.server.model.ViewStats(hit.uri, hit.app, COUNT(DISTINCT hit.ip)) " +
-            "FROM EndpointHit AS hit " +
-            "WHERE hit.timestamp BETWEEN ?1 AND ?2 " +
-            "AND hit.uri IN (?3) " +
-            "GROUP BY hit.app, hit.uri " +
-            "ORDER BY COUNT(hit.ip) DESC")
-    List<ViewStats> getStatsByUnique(LocalDateTime start, LocalDateTime end);
-
-    @Query(value = "SELECT NEW ru.practicum.ewm.stats.server.model.ViewStats(hit.uri, hit.app, COUNT(DISTINCT hit.ip)) " +
-            "FROM EndpointHit AS hit " +
-            "WHERE hit.uri IN (?3) " +
-            "AND hit.timestamp BETWEEN ?1 AND ?2 " +
-            "GROUP BY hit.app, hit.uri, hit.ip " +
-            "ORDER BY COUNT(DISTINCT hit.ip) DESC")
-    List<ViewStats> getStatsByUrisAndUnique(LocalDateTime start, LocalDateTime end, List<String> uris);
-
-    @Query("SELECT NEW ru.practicum.ewm.stats.server.model.ViewStats(hit.uri, hit.app, COUNT(hit.ip)) " +
-            "FROM EndpointHit AS hit " +
-            "WHERE hit.timestamp BETWEEN ?1 AND ?2 " +
-            "GROUP BY hit.app, hit.uri " +
-            "ORDER BY COUNT(hit.ip) DESC")
-    List<ViewStats> getStats(LocalDateTime start, LocalDateTime end);
-
-    @Query("SELECT NEW ru.practicum.ewm.stats.server.model.ViewStats(hit.uri, hit.app, COUNT(hit.ip)) " +
-            "FROM EndpointHit AS hit " +
-            "WHERE hit.timestamp BETWEEN ?1 AND ?2 " +
-            "AND hit.uri IN (?3) " +
-            "GROUP BY hit.app, hit.uri " +
-            "ORDER BY COUNT(hit.ip) DESC")
-    List<ViewStats> getStatsByUris(LocalDateTime start, LocalDateTime end, List<String> uris);
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "stats.storage.engine", havingValue = "jdbc", matchIfMissing = true)
+public class StatsRepository implements HitStorage {
+
+    private static final int BATCH_SIZE = 500;
+    private static final String INSERT_HIT = "INSERT INTO %s (app_id, uri_id, ip, timestamp) VALUES (?, ?, ?, ?)";
+
+    private static final RowMapper<HitCount> HIT_COUNT_MAPPER = (rs, rowNum) -> new HitCount(
+            rs.getObject("app_id", Integer.class),
+            rs.getObject("uri_id", Integer.class),
+            rs.getLong("hits"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final HitPartitionRepository partitionRepository;
+    private final RollupRepository rollupRepository;
+    private final SketchRepository sketchRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public EndpointHit save(EndpointHit hit) {
+        partitionRepository.ensurePartitions(List.of(hit.getTimestamp()));
+
+        String sql = String.format(INSERT_HIT, partitionRepository.getTable(hit.getTimestamp()));
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, new String[]{"id"});
+            setValues(ps, hit);
+            return ps;
+        }, keyHolder);
+
+        hit.setId(keyHolder.getKey().longValue());
+        return hit;
+    }
+
+    @Override
+    public void saveAllInBatch(List<EndpointHit> hits) {
+        partitionRepository.ensurePartitions(hits.stream()
+                .map(EndpointHit::getTimestamp)
+                .collect(Collectors.toList()));
+
+        Map<String, List<EndpointHit>> byTable = hits.stream()
+                .collect(Collectors.groupingBy(hit -> partitionRepository.getTable(hit.getTimestamp()),
+                        TreeMap::new, Collectors.toList()));
+        byTable.forEach((table, tableHits) ->
+                jdbcTemplate.batchUpdate(String.format(INSERT_HIT, table), tableHits, BATCH_SIZE,
+                        StatsRepository::setValues));
+    }
+
+    @Override
+    public List<HitCount> getStats(LocalDateTime from, LocalDateTime to, List<Integer> uriIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = select("app_id, uri_id, COUNT(*) AS hits", from, to, uriIds, params)
+                .append(" GROUP BY app_id, uri_id");
+
+        return namedJdbcTemplate.query(sql.toString(), params, HIT_COUNT_MAPPER);
+    }
+
+    @Override
+    public List<HitCount> getUniqueStats(LocalDateTime from, LocalDateTime to, List<Integer> uriIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = select("app_id, uri_id, COUNT(DISTINCT ip) AS hits", from, to, uriIds, params)
+                .append(" GROUP BY app_id, uri_id ORDER BY hits DESC");
+
+        return namedJdbcTemplate.query(sql.toString(), params, HIT_COUNT_MAPPER);
+    }
+
+    @Override
+    public List<EndpointHit> getDistinctIps(LocalDateTime from, LocalDateTime to, List<Integer> uriIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        StringBuilder sql = select("DISTINCT app_id, uri_id, ip", from, to, uriIds, params)
+                .append(" AND ip IS NOT NULL");
+
+        return namedJdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> EndpointHit.builder()
+                .appId(rs.getObject("app_id", Integer.class))
+                .uriId(rs.getObject("uri_id", Integer.class))
+                .ip(rs.getBytes("ip"))
+                .build());
+    }
+
+    @Override
+    public void maintain(LocalDateTime horizon) {
+        PartitionPeriod period = partitionRepository.getPeriod();
+        LocalDateTime now = LocalDateTime.now();
+        partitionRepository.ensurePartitions(List.of(now, period.next(period.floor(now))));
+
+        for (LocalDateTime start : partitionRepository.getPartitionsBefore(horizon)) {
+            String table = period.tableName(start);
+            transactionTemplate.executeWithoutResult(status -> {
+                rollupRepository.rebuild(table, start, period.next(start));
+                sketchRepository.rebuild(table, start, period.next(start));
+                partitionRepository.drop(start);
+            });
+            log.info("Folded hits partition {} into rollups and sketches and dropped it", table);
+        }
+    }
+
+    private StringBuilder select(String columns, LocalDateTime from, LocalDateTime to, List<Integer> uriIds,
+                                 MapSqlParameterSource params) {
+        params.addValue("from", Timestamp.valueOf(from))
+                .addValue("to", Timestamp.valueOf(to));
+
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(columns)
+                .append(" FROM ")
+                .append(partitionRepository.getSource(from, to))
+                .append(" WHERE timestamp >= :from AND timestamp < :to");
+        if (!uriIds.isEmpty()) {
+            sql.append(" AND uri_id = ANY(:uriIds)");
+            params.addValue("uriIds", uriIds.toArray(new Integer[0]));
+        }
+        return sql;
+    }
+
+    private static void setValues(PreparedStatement ps, EndpointHit hit) throws SQLException {
+        ps.setObject(1, hit.getAppId(), Types.INTEGER);
+        ps.setObject(2, hit.getUriId(), Types.INTEGER);
+        ps.setBytes(3, hit.getIp());
+        ps.setTimestamp(4, Timestamp.valueOf(hit.getTimestamp()));
+    }
 }
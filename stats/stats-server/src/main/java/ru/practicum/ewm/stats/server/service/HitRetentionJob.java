@@ -0,0 +1,62 @@
+package ru.practicum.ewm.stats.server.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.stats.server.model.RollupGranularity;
+import ru.practicum.ewm.stats.server.repository.HitPartitionRepository;
+import ru.practicum.ewm.stats.server.repository.HitStorage;
+import ru.practicum.ewm.stats.server.repository.SketchRepository;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+public class HitRetentionJob {
+
+    private final HitStorage hitStorage;
+    private final HitPartitionRepository partitionRepository;
+    private final SketchRepository sketchRepository;
+    private final int retentionDays;
+    private final int sketchRetentionDays;
+    private final long maxClockSkewSeconds;
+
+    public HitRetentionJob(HitStorage hitStorage, HitPartitionRepository partitionRepository,
+                           SketchRepository sketchRepository,
+                           @Value("${stats.partition.retention-days:90}") int retentionDays,
+                           @Value("${stats.sketch.retention-days:365}") int sketchRetentionDays,
+                           @Value("${stats.ingest.max-clock-skew-seconds:300}") long maxClockSkewSeconds) {
+        this.hitStorage = hitStorage;
+        this.partitionRepository = partitionRepository;
+        this.sketchRepository = sketchRepository;
+        this.retentionDays = retentionDays;
+        this.sketchRetentionDays = sketchRetentionDays;
+        this.maxClockSkewSeconds = maxClockSkewSeconds;
+    }
+
+    public LocalDateTime getRawDataHorizon() {
+        return partitionRepository.getPeriod().floor(LocalDateTime.now().minusDays(retentionDays));
+    }
+
+    /**
+     * Latest hit timestamp accepted on ingest. Together with the raw-data horizon it bounds the partitions
+     * that a client-supplied timestamp can create.
+     */
+    public LocalDateTime getIngestLimit() {
+        return LocalDateTime.now().plusSeconds(maxClockSkewSeconds);
+    }
+
+    public LocalDateTime getSketchHorizon() {
+        return RollupGranularity.HOUR.floor(LocalDateTime.now().minusDays(sketchRetentionDays));
+    }
+
+    @Scheduled(cron = "${stats.partition.maintenance-cron:0 15 * * * *}")
+    public void maintain() {
+        hitStorage.maintain(getRawDataHorizon());
+        int pruned = sketchRepository.deleteBefore(getSketchHorizon());
+        if (pruned > 0) {
+            log.info("Pruned {} unique-count sketches older than {}", pruned, getSketchHorizon());
+        }
+    }
+}
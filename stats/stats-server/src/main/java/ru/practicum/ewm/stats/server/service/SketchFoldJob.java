@@ -0,0 +1,69 @@
+package ru.practicum.ewm.stats.server.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.ewm.stats.server.model.RollupGranularity;
+import ru.practicum.ewm.stats.server.repository.HitStorage;
+import ru.practicum.ewm.stats.server.repository.SketchRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Builds the hourly unique-count sketches off the ingest path: once an hour has been closed for the grace
+ * period, its distinct (app, uri, ip) triples are read from the raw hits and written as one sketch per uri.
+ * Hours from {@link #getFoldedUntil()} on are answered from the raw hits instead. Hits arriving later than
+ * the grace period are picked up when the jdbc engine folds their partition at the retention horizon.
+ */
+@Slf4j
+@Component
+public class SketchFoldJob {
+
+    private final HitStorage hitStorage;
+    private final SketchRepository sketchRepository;
+    private final HitRetentionJob hitRetentionJob;
+    private final TransactionTemplate transactionTemplate;
+    private final long graceSeconds;
+    private volatile LocalDateTime foldedUntil;
+
+    public SketchFoldJob(HitStorage hitStorage, SketchRepository sketchRepository, HitRetentionJob hitRetentionJob,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${stats.sketch.fold-grace-seconds:120}") long graceSeconds) {
+        this.hitStorage = hitStorage;
+        this.sketchRepository = sketchRepository;
+        this.hitRetentionJob = hitRetentionJob;
+        this.transactionTemplate = transactionTemplate;
+        this.graceSeconds = graceSeconds;
+        // The newest bucket is folded again, as it may predate this job or the grace period.
+        this.foldedUntil = sketchRepository.findLatestBucket().orElse(LocalDateTime.MIN);
+    }
+
+    /**
+     * Start of the first hour without a folded sketch. Hours before the raw-data horizon count as folded,
+     * because their sketches are rebuilt when the raw hits expire.
+     */
+    public LocalDateTime getFoldedUntil() {
+        LocalDateTime horizon = hitRetentionJob.getRawDataHorizon();
+        return foldedUntil.isAfter(horizon) ? foldedUntil : horizon;
+    }
+
+    @Scheduled(fixedDelayString = "${stats.sketch.fold-interval-ms:60000}",
+            initialDelayString = "${stats.sketch.fold-interval-ms:60000}")
+    public synchronized void fold() {
+        LocalDateTime closed = RollupGranularity.HOUR.floor(LocalDateTime.now().minusSeconds(graceSeconds));
+        int folded = 0;
+        for (LocalDateTime hour = getFoldedUntil(); hour.isBefore(closed); hour = hour.plusHours(1)) {
+            LocalDateTime bucket = hour;
+            transactionTemplate.executeWithoutResult(status -> sketchRepository.replaceBucket(bucket,
+                    hitStorage.getDistinctIps(bucket, bucket.plusHours(1), List.of())));
+            foldedUntil = bucket.plusHours(1);
+            folded++;
+        }
+        if (folded > 0) {
+            log.info("Folded unique-count sketches for {} hours up to {}", folded, foldedUntil);
+        }
+    }
+}
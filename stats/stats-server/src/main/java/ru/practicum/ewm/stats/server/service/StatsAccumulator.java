@@ -0,0 +1,30 @@
+package ru.practicum.ewm.stats.server.service;
+
+import ru.practicum.ewm.stats.server.model.AppUri;
+import ru.practicum.ewm.stats.server.model.HitCount;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+class StatsAccumulator {
+
+    private final Map<AppUri, Long> hits = new HashMap<>();
+
+    void add(List<HitCount> counts) {
+        counts.forEach(c -> add(new AppUri(c.getAppId(), c.getUriId()), c.getHits()));
+    }
+
+    void add(AppUri key, long count) {
+        hits.merge(key, count, Long::sum);
+    }
+
+    List<HitCount> toList() {
+        return hits.entrySet().stream()
+                .map(e -> new HitCount(e.getKey().getAppId(), e.getKey().getUriId(), e.getValue()))
+                .sorted(Comparator.comparing(HitCount::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,144 @@
+package ru.practicum.ewm.stats.server.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.stats.server.model.DictionaryKind;
+import ru.practicum.ewm.stats.server.model.EndpointHit;
+import ru.practicum.ewm.stats.server.repository.DictionaryRepository;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Interns app names and uris as integer ids. Both directions are cached in bounded LRU maps;
+ * ids are created in their own transaction, so a cached id always refers to a committed row.
+ */
+@Component
+public class StatsDictionary {
+
+    private final DictionaryRepository dictionaryRepository;
+    private final Map<DictionaryKind, LruCache<String, Integer>> ids = new EnumMap<>(DictionaryKind.class);
+    private final Map<DictionaryKind, LruCache<Integer, String>> names = new EnumMap<>(DictionaryKind.class);
+
+    public StatsDictionary(DictionaryRepository dictionaryRepository,
+                           @Value("${stats.dictionary.cache-size:10000}") int cacheSize) {
+        this.dictionaryRepository = dictionaryRepository;
+        for (DictionaryKind kind : DictionaryKind.values()) {
+            ids.put(kind, new LruCache<>(cacheSize));
+            names.put(kind, new LruCache<>(cacheSize));
+        }
+    }
+
+    public void encode(List<EndpointHit> hits) {
+        Map<String, Integer> appIds = getOrCreateIds(DictionaryKind.APP, collect(hits, EndpointHit::getApp));
+        Map<String, Integer> uriIds = getOrCreateIds(DictionaryKind.URI, collect(hits, EndpointHit::getUri));
+
+        for (EndpointHit hit : hits) {
+            hit.setAppId(hit.getApp() == null ? null : appIds.get(hit.getApp()));
+            hit.setUriId(hit.getUri() == null ? null : uriIds.get(hit.getUri()));
+        }
+    }
+
+    public List<Integer> findUriIds(Collection<String> uris) {
+        return new ArrayList<>(findIds(DictionaryKind.URI, new HashSet<>(uris)).values());
+    }
+
+    public String findName(DictionaryKind kind, int id) {
+        return findNames(kind, List.of(id)).get(id);
+    }
+
+    public Map<Integer, String> findNames(DictionaryKind kind, Collection<Integer> keys) {
+        LruCache<Integer, String> cache = names.get(kind);
+        Map<Integer, String> found = new HashMap<>();
+        Set<Integer> missing = new HashSet<>();
+
+        synchronized (cache) {
+            for (Integer id : keys) {
+                String name = cache.get(id);
+                if (name != null) {
+                    found.put(id, name);
+                } else {
+                    missing.add(id);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Integer, String> loaded = dictionaryRepository.findNames(kind, missing);
+            loaded.forEach((id, name) -> cache(kind, name, id));
+            found.putAll(loaded);
+        }
+        return found;
+    }
+
+    private Map<String, Integer> getOrCreateIds(DictionaryKind kind, Set<String> keys) {
+        Map<String, Integer> found = findIds(kind, keys);
+        if (found.size() < keys.size()) {
+            List<String> missing = keys.stream()
+                    .filter(name -> !found.containsKey(name))
+                    .sorted()
+                    .collect(Collectors.toList());
+            dictionaryRepository.insertIfAbsent(kind, missing);
+            found.putAll(findIds(kind, missing));
+        }
+        return found;
+    }
+
+    private Map<String, Integer> findIds(DictionaryKind kind, Collection<String> keys) {
+        LruCache<String, Integer> cache = ids.get(kind);
+        Map<String, Integer> found = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+
+        synchronized (cache) {
+            for (String name : keys) {
+                Integer id = cache.get(name);
+                if (id != null) {
+                    found.put(name, id);
+                } else {
+                    missing.add(name);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, Integer> loaded = dictionaryRepository.findIds(kind, missing);
+            loaded.forEach((name, id) -> cache(kind, name, id));
+            found.putAll(loaded);
+        }
+        return found;
+    }
+
+    private void cache(DictionaryKind kind, String name, Integer id) {
+        LruCache<String, Integer> idCache = ids.get(kind);
+        synchronized (idCache) {
+            idCache.put(name, id);
+        }
+        LruCache<Integer, String> nameCache = names.get(kind);
+        synchronized (nameCache) {
+            nameCache.put(id, name);
+        }
+    }
+
+    private static Set<String> collect(List<EndpointHit> hits, Function<EndpointHit, String> field) {
+        return hits.stream()
+                .map(field)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private static class LruCache<K, V> extends LinkedHashMap<K, V> {
+
+        private final int capacity;
+
+        LruCache(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package ru.practicum.ewm.stats.server.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.ewm.stats.dto.EndpointHitDto;
+import ru.practicum.ewm.stats.dto.StatsQueryDto;
 import ru.practicum.ewm.stats.dto.ViewStatsDto;
 
 import java.util.List;
@@ -9,5 +11,17 @@ public interface StatsService {
 
     EndpointHitDto create(EndpointHitDto endpointHitDto);
 
-    List<ViewStatsDto> getStats(String start, String end, List<String> uris, Boolean unique);
+    void createAll(List<EndpointHitDto> endpointHitDtos);
+
+    List<ViewStatsDto> getStats(String start, String end, List<String> uris, Boolean unique, Boolean approximate);
+
+    List<ViewStatsDto> getStats(StatsQueryDto query);
+
+    boolean isEstimated(String start, Boolean unique, Boolean approximate);
+
+    boolean isEstimated(StatsQueryDto query);
+
+    List<ViewStatsDto> getTop(String app, Integer k, String window);
+
+    StreamingResponseBody getTimeSeries(String start, String end, List<String> uris, String step);
 }
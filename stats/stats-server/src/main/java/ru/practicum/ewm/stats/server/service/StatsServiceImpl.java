@@ -1,19 +1,41 @@
 package ru.practicum.ewm.stats.server.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.ewm.stats.dto.EndpointHitDto;
+import ru.practicum.ewm.stats.dto.StatsQueryDto;
 import ru.practicum.ewm.stats.dto.ViewStatsDto;
 import ru.practicum.ewm.stats.server.exception.BadRequestException;
+import ru.practicum.ewm.stats.server.mapper.EndpointHitMapper;
 import ru.practicum.ewm.stats.server.mapper.StatsMapper;
+import ru.practicum.ewm.stats.server.model.AppUri;
+import ru.practicum.ewm.stats.server.model.DictionaryKind;
 import ru.practicum.ewm.stats.server.model.EndpointHit;
-import ru.practicum.ewm.stats.server.model.ViewStats;
-import ru.practicum.ewm.stats.server.repository.StatsRepository;
+import ru.practicum.ewm.stats.server.model.HitCount;
+import ru.practicum.ewm.stats.server.model.RollupGranularity;
+import ru.practicum.ewm.stats.server.model.TimeSeriesStep;
+import ru.practicum.ewm.stats.server.model.TopWindow;
+import ru.practicum.ewm.stats.server.repository.HitStorage;
+import ru.practicum.ewm.stats.server.repository.RollupRepository;
+import ru.practicum.ewm.stats.server.repository.SketchRepository;
+import ru.practicum.ewm.stats.server.sketch.HyperLogLog;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static ru.practicum.ewm.stats.server.mapper.EndpointHitMapper.toEndpointHit;
@@ -24,42 +46,261 @@ import static ru.practicum.ewm.stats.server.mapper.EndpointHitMapper.toEndpointH
 public class StatsServiceImpl implements StatsService {
 
     private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private final StatsRepository statsRepository;
+    private final HitStorage hitStorage;
+    private final RollupRepository rollupRepository;
+    private final SketchRepository sketchRepository;
+    private final TopUriTracker topUriTracker;
+    private final StatsDictionary statsDictionary;
+    private final HitRetentionJob hitRetentionJob;
+    private final SketchFoldJob sketchFoldJob;
+    private final ObjectMapper objectMapper;
 
     @Override
     @Transactional
     public EndpointHitDto create(EndpointHitDto endpointHitDto) {
         EndpointHit hit = toEndpointHit(endpointHitDto);
-        return toEndpointHitDto(statsRepository.save(hit));
+        validate(hit);
+        statsDictionary.encode(List.of(hit));
+        hitStorage.save(hit);
+        rollupRepository.addHits(List.of(hit));
+        afterCommit(() -> topUriTracker.record(List.of(hit)));
+        return toEndpointHitDto(hit);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<ViewStatsDto> getStats(String start, String end, List<String> uris, Boolean unique) {
+    @Transactional
+    public void createAll(List<EndpointHitDto> endpointHitDtos) {
+        List<EndpointHit> hits = endpointHitDtos.stream()
+                .map(EndpointHitMapper::toEndpointHit)
+                .collect(Collectors.toList());
+
+        if (!hits.isEmpty()) {
+            hits.forEach(this::validate);
+            statsDictionary.encode(hits);
+            hitStorage.saveAllInBatch(hits);
+            rollupRepository.addHits(hits);
+            afterCommit(() -> topUriTracker.record(hits));
+        }
+    }
+
+    @Override
+    public StreamingResponseBody getTimeSeries(String start, String end, List<String> uris, String step) {
         LocalDateTime startDate = LocalDateTime.parse(start, FORMATTER);
         LocalDateTime endDate = LocalDateTime.parse(end, FORMATTER);
+        TimeSeriesStep seriesStep = TimeSeriesStep.fromCode(step);
 
         if (endDate.isBefore(startDate)) {
             throw new BadRequestException("End date must be later than the start date");
         }
 
-        List<ViewStats> result;
-        if (unique) {
-            if (uris.isEmpty()) {
-                result = statsRepository.getStatsByUnique(startDate, endDate);
-            } else {
-                result = statsRepository.getStatsByUrisAndUnique(startDate, endDate, uris);
+        LocalDateTime from = seriesStep.floor(startDate);
+        LocalDateTime to = seriesStep.floor(endDate).plus(1, seriesStep.getUnit());
+        List<Integer> uriIds = statsDictionary.findUriIds(uris);
+
+        return out -> {
+            TimeSeriesWriter writer = new TimeSeriesWriter(objectMapper.getFactory().createGenerator(out),
+                    statsDictionary, seriesStep);
+            if (uris.isEmpty() || !uriIds.isEmpty()) {
+                rollupRepository.streamSeries(seriesStep.getSource(), from, to, uriIds, rs -> {
+                    try {
+                        writer.add(rs.getInt("app_id"), rs.getInt("uri_id"),
+                                rs.getTimestamp("bucket").toLocalDateTime(), rs.getLong("hits"));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
             }
+            writer.finish();
+        };
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ViewStatsDto> getStats(String start, String end, List<String> uris, Boolean unique,
+                                       Boolean approximate) {
+        return getStats(LocalDateTime.parse(start, FORMATTER), LocalDateTime.parse(end, FORMATTER), uris, unique,
+                approximate);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ViewStatsDto> getStats(StatsQueryDto query) {
+        if (query.getStart() == null || query.getEnd() == null) {
+            throw new BadRequestException("Start and end dates must be specified");
+        }
+
+        return getStats(query.getStart(), query.getEnd(),
+                query.getUris() == null ? Collections.emptyList() : query.getUris(),
+                Boolean.TRUE.equals(query.getUnique()),
+                Boolean.TRUE.equals(query.getApproximate()));
+    }
+
+    /**
+     * Whether unique counts for a query starting at {@code start} come from HyperLogLog sketches rather than an
+     * exact count: either the caller asked for it, or the raw hits before the retention horizon are already folded.
+     */
+    @Override
+    public boolean isEstimated(String start, Boolean unique, Boolean approximate) {
+        return isEstimated(LocalDateTime.parse(start, FORMATTER), Boolean.TRUE.equals(unique),
+                Boolean.TRUE.equals(approximate));
+    }
+
+    @Override
+    public boolean isEstimated(StatsQueryDto query) {
+        return isEstimated(query.getStart(), Boolean.TRUE.equals(query.getUnique()),
+                Boolean.TRUE.equals(query.getApproximate()));
+    }
+
+    @Override
+    public List<ViewStatsDto> getTop(String app, Integer k, String window) {
+        return topUriTracker.getTop(app, k, TopWindow.fromCode(window)).stream()
+                .map(StatsMapper::toStatsDto)
+                .collect(Collectors.toList());
+    }
+
+    private List<ViewStatsDto> getStats(LocalDateTime startDate, LocalDateTime endDate, List<String> uris,
+                                        boolean unique, boolean approximate) {
+        if (endDate.isBefore(startDate)) {
+            throw new BadRequestException("End date must be later than the start date");
+        }
+
+        List<Integer> uriIds = statsDictionary.findUriIds(uris);
+        if (!uris.isEmpty() && uriIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<HitCount> result;
+        if (isEstimated(startDate, unique, approximate)) {
+            result = getApproximateUniqueStats(startDate, endDate.plusSeconds(1), uriIds);
+        } else if (unique) {
+            result = hitStorage.getUniqueStats(startDate, endDate.plusSeconds(1), uriIds);
         } else {
-            if (uris.isEmpty()) {
-                result = statsRepository.getStats(startDate, endDate);
-            } else {
-                result = statsRepository.getStatsByUris(startDate, endDate, uris);
-            }
+            StatsAccumulator accumulator = new StatsAccumulator();
+            addHourStats(accumulator, startDate, endDate.plusSeconds(1), uriIds);
+            result = accumulator.toList();
         }
 
+        Map<Integer, String> apps = statsDictionary.findNames(DictionaryKind.APP, ids(result, HitCount::getAppId));
+        Map<Integer, String> uriNames = statsDictionary.findNames(DictionaryKind.URI, ids(result, HitCount::getUriId));
         return result.stream()
-                .map(StatsMapper::toStatsDto)
+                .map(count -> StatsMapper.toStatsDto(count, apps, uriNames))
                 .collect(Collectors.toList());
     }
+
+    private boolean isEstimated(LocalDateTime startDate, boolean unique, boolean approximate) {
+        return unique && (approximate || startDate.isBefore(hitRetentionJob.getRawDataHorizon()));
+    }
+
+    /**
+     * Merges the folded hourly sketches inside [from, to) and adds the raw ips of the partial hours at both
+     * ends and of the hours the fold has not reached yet.
+     */
+    private List<HitCount> getApproximateUniqueStats(LocalDateTime from, LocalDateTime to, List<Integer> uriIds) {
+        Map<AppUri, HyperLogLog> sketches = new HashMap<>();
+        LocalDateTime hoursFrom = RollupGranularity.HOUR.ceil(from);
+        LocalDateTime hoursTo = RollupGranularity.HOUR.floor(to);
+        LocalDateTime foldedUntil = sketchFoldJob.getFoldedUntil();
+        if (foldedUntil.isBefore(hoursTo)) {
+            hoursTo = foldedUntil.isAfter(hoursFrom) ? foldedUntil : hoursFrom;
+        }
+
+        if (hoursFrom.isBefore(hoursTo)) {
+            sketchRepository.mergeSketches(sketches, hoursFrom, hoursTo, uriIds);
+            addRawIps(sketches, from, hoursFrom, uriIds);
+            addRawIps(sketches, hoursTo, to, uriIds);
+        } else {
+            addRawIps(sketches, from, to, uriIds);
+        }
+
+        StatsAccumulator accumulator = new StatsAccumulator();
+        sketches.forEach((key, sketch) -> accumulator.add(key, sketch.estimate()));
+        return accumulator.toList();
+    }
+
+    private void addRawIps(Map<AppUri, HyperLogLog> sketches, LocalDateTime from, LocalDateTime to,
+                           List<Integer> uriIds) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+
+        hitStorage.getDistinctIps(from, to, uriIds).forEach(hit -> sketches
+                .computeIfAbsent(new AppUri(hit.getAppId(), hit.getUriId()), k -> new HyperLogLog())
+                .add(hit.getIp()));
+    }
+
+    private void addHourStats(StatsAccumulator accumulator, LocalDateTime from, LocalDateTime to,
+                              List<Integer> uriIds) {
+        LocalDateTime hoursFrom = RollupGranularity.HOUR.ceil(from);
+        LocalDateTime hoursTo = RollupGranularity.HOUR.floor(to);
+
+        if (!hoursFrom.isBefore(hoursTo)) {
+            addMinuteStats(accumulator, from, to, uriIds);
+            return;
+        }
+
+        accumulator.add(rollupRepository.getStats(RollupGranularity.HOUR, hoursFrom, hoursTo, uriIds));
+        addMinuteStats(accumulator, from, hoursFrom, uriIds);
+        addMinuteStats(accumulator, hoursTo, to, uriIds);
+    }
+
+    private void addMinuteStats(StatsAccumulator accumulator, LocalDateTime from, LocalDateTime to,
+                                List<Integer> uriIds) {
+        LocalDateTime minutesFrom = RollupGranularity.MINUTE.ceil(from);
+        LocalDateTime minutesTo = RollupGranularity.MINUTE.floor(to);
+
+        if (!minutesFrom.isBefore(minutesTo)) {
+            addRawStats(accumulator, from, to, uriIds);
+            return;
+        }
+
+        accumulator.add(rollupRepository.getStats(RollupGranularity.MINUTE, minutesFrom, minutesTo, uriIds));
+        addRawStats(accumulator, from, minutesFrom, uriIds);
+        addRawStats(accumulator, minutesTo, to, uriIds);
+    }
+
+    private void addRawStats(StatsAccumulator accumulator, LocalDateTime from, LocalDateTime to,
+                             List<Integer> uriIds) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+
+        accumulator.add(hitStorage.getStats(from, to, uriIds));
+    }
+
+    private void validate(EndpointHit hit) {
+        if (hit.getTimestamp() == null) {
+            throw new BadRequestException("Hit timestamp must not be null");
+        }
+
+        LocalDateTime horizon = hitRetentionJob.getRawDataHorizon();
+        LocalDateTime limit = hitRetentionJob.getIngestLimit();
+        if (hit.getTimestamp().isBefore(horizon) || hit.getTimestamp().isAfter(limit)) {
+            throw new BadRequestException(String.format("Hit timestamp %s is outside the accepted range [%s, %s]",
+                    FORMATTER.format(hit.getTimestamp()), FORMATTER.format(horizon), FORMATTER.format(limit)));
+        }
+    }
+
+    /**
+     * The heavy-hitter counters live in memory and cannot be rolled back, so they only see committed hits.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static Set<Integer> ids(List<HitCount> counts, Function<HitCount, Integer> field) {
+        return counts.stream()
+                .map(field)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
 }
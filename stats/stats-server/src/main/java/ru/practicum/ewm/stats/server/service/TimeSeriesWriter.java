@@ -0,0 +1,68 @@
+package ru.practicum.ewm.stats.server.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import ru.practicum.ewm.stats.dto.TimeSeriesPointDto;
+import ru.practicum.ewm.stats.server.model.AppUri;
+import ru.practicum.ewm.stats.server.model.DictionaryKind;
+import ru.practicum.ewm.stats.server.model.TimeSeriesStep;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+class TimeSeriesWriter {
+
+    private final JsonGenerator generator;
+    private final StatsDictionary dictionary;
+    private final TimeSeriesStep step;
+    private AppUri series;
+    private LocalDateTime bucket;
+    private long hits;
+
+    TimeSeriesWriter(JsonGenerator generator, StatsDictionary dictionary, TimeSeriesStep step) throws IOException {
+        this.generator = generator;
+        this.dictionary = dictionary;
+        this.step = step;
+        generator.writeStartArray();
+    }
+
+    void add(int appId, int uriId, LocalDateTime sourceBucket, long sourceHits) throws IOException {
+        AppUri key = new AppUri(appId, uriId);
+        LocalDateTime stepBucket = step.floor(sourceBucket);
+
+        if (!key.equals(series)) {
+            closeSeries();
+            series = key;
+            generator.writeStartObject();
+            generator.writeStringField("app", dictionary.findName(DictionaryKind.APP, appId));
+            generator.writeStringField("uri", dictionary.findName(DictionaryKind.URI, uriId));
+            generator.writeArrayFieldStart("points");
+        } else if (stepBucket.equals(bucket)) {
+            hits += sourceHits;
+            return;
+        } else {
+            writePoint();
+        }
+
+        bucket = stepBucket;
+        hits = sourceHits;
+    }
+
+    void finish() throws IOException {
+        closeSeries();
+        generator.writeEndArray();
+        generator.flush();
+    }
+
+    private void closeSeries() throws IOException {
+        if (series == null) {
+            return;
+        }
+        writePoint();
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private void writePoint() throws IOException {
+        generator.writeObject(new TimeSeriesPointDto(bucket, hits));
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.ewm.stats.server.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.ewm.stats.server.exception.BadRequestException;
+import ru.practicum.ewm.stats.server.model.EndpointHit;
+import ru.practicum.ewm.stats.server.model.TopWindow;
+import ru.practicum.ewm.stats.server.model.ViewStats;
+import ru.practicum.ewm.stats.server.sketch.SlidingTopK;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Component
+public class TopUriTracker {
+
+    private final int capacity;
+    private final Map<String, Map<TopWindow, SlidingTopK>> trackers = new ConcurrentHashMap<>();
+
+    public TopUriTracker(@Value("${stats.top.capacity:100}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void record(List<EndpointHit> hits) {
+        long now = epochSecond(LocalDateTime.now());
+        for (EndpointHit hit : hits) {
+            if (hit.getApp() == null || hit.getUri() == null || hit.getTimestamp() == null) {
+                continue;
+            }
+            long timestamp = epochSecond(hit.getTimestamp());
+            trackers.computeIfAbsent(hit.getApp(), this::createTrackers)
+                    .values()
+                    .forEach(tracker -> tracker.add(hit.getUri(), timestamp, now));
+        }
+    }
+
+    public List<ViewStats> getTop(String app, int k, TopWindow window) {
+        if (k < 1 || k > capacity) {
+            throw new BadRequestException(String.format("k must be between 1 and %s", capacity));
+        }
+
+        Map<TopWindow, SlidingTopK> appTrackers = trackers.get(app);
+        if (appTrackers == null) {
+            return Collections.emptyList();
+        }
+
+        return appTrackers.get(window).top(k, epochSecond(LocalDateTime.now())).stream()
+                .map(entry -> new ViewStats(app, entry.getKey(), entry.getCount()))
+                .collect(Collectors.toList());
+    }
+
+    private Map<TopWindow, SlidingTopK> createTrackers(String app) {
+        Map<TopWindow, SlidingTopK> appTrackers = new EnumMap<>(TopWindow.class);
+        for (TopWindow window : TopWindow.values()) {
+            appTrackers.put(window, new SlidingTopK(window.getSlotCount(), window.getSlotSeconds(), capacity));
+        }
+        return appTrackers;
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+}
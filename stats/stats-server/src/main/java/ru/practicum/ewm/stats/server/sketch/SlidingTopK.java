@@ -0,0 +1,104 @@
+package ru.practicum.ewm.stats.server.sketch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class SlidingTopK {
+
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 1024;
+
+    private final long slotSeconds;
+    private final int capacity;
+    private final Slot[] slots;
+
+    public SlidingTopK(int slotCount, long slotSeconds, int capacity) {
+        this.slotSeconds = slotSeconds;
+        this.capacity = capacity;
+        this.slots = new Slot[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new Slot();
+        }
+    }
+
+    public synchronized void add(String key, long epochSecond, long nowEpochSecond) {
+        long index = Math.floorDiv(epochSecond, slotSeconds);
+        long current = Math.floorDiv(nowEpochSecond, slotSeconds);
+        if (index <= current - slots.length) {
+            return;
+        }
+
+        Slot slot = slots[Math.floorMod(index, slots.length)];
+        if (slot.index != index) {
+            if (slot.index > index) {
+                return;
+            }
+            slot.reset(index);
+        }
+        slot.add(key, SketchHashing.hash64(key));
+    }
+
+    public synchronized List<Entry> top(int k, long nowEpochSecond) {
+        long current = Math.floorDiv(nowEpochSecond, slotSeconds);
+        List<Slot> live = Arrays.stream(slots)
+                .filter(slot -> slot.index > current - slots.length && slot.index <= current)
+                .collect(Collectors.toList());
+
+        Set<String> candidates = new HashSet<>();
+        live.forEach(slot -> candidates.addAll(slot.heavyHitters.keySet()));
+
+        return candidates.stream()
+                .map(key -> {
+                    long hash = SketchHashing.hash64(key);
+                    return new Entry(key, live.stream().mapToLong(slot -> slot.sketch.estimate(hash)).sum());
+                })
+                .sorted(Comparator.comparingLong(Entry::getCount).reversed())
+                .limit(k)
+                .collect(Collectors.toList());
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final String key;
+        private final long count;
+    }
+
+    private class Slot {
+        private long index = Long.MIN_VALUE;
+        private final CountMinSketch sketch = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+        private final PriorityQueue<Entry> heap = new PriorityQueue<>(Comparator.comparingLong(Entry::getCount));
+        private final Map<String, Entry> heavyHitters = new HashMap<>();
+
+        void reset(long newIndex) {
+            index = newIndex;
+            sketch.clear();
+            heap.clear();
+            heavyHitters.clear();
+        }
+
+        void add(String key, long hash) {
+            sketch.add(hash, 1);
+            Entry entry = new Entry(key, sketch.estimate(hash));
+
+            Entry previous = heavyHitters.remove(key);
+            if (previous != null) {
+                heap.remove(previous);
+            } else if (heap.size() >= capacity) {
+                if (heap.peek().getCount() >= entry.getCount()) {
+                    return;
+                }
+                heavyHitters.remove(heap.poll().getKey());
+            }
+            heap.add(entry);
+            heavyHitters.put(key, entry);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package ru.practicum.ewm.stats.server.storage;
+
+import ru.practicum.ewm.stats.server.model.DictionaryKind;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Durable copy of the app and uri dictionary entries referenced by the hit log, so the ids stored in
+ * segments can be resolved again after a restart. Entries are written before the first record that uses
+ * them; a torn entry at the end of the file is discarded on open.
+ */
+class DictionaryJournal {
+
+    private static final int HEADER_SIZE = Byte.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private final FileChannel channel;
+    private final Map<DictionaryKind, Map<Integer, String>> entries = new EnumMap<>(DictionaryKind.class);
+
+    private DictionaryJournal(FileChannel channel) {
+        this.channel = channel;
+        for (DictionaryKind kind : DictionaryKind.values()) {
+            entries.put(kind, new HashMap<>());
+        }
+    }
+
+    static DictionaryJournal open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        DictionaryJournal journal = new DictionaryJournal(channel);
+        journal.recover();
+        return journal;
+    }
+
+    Map<Integer, String> getEntries(DictionaryKind kind) {
+        return entries.get(kind);
+    }
+
+    void record(DictionaryKind kind, Integer id, String name) throws IOException {
+        if (id == null || entries.get(kind).containsKey(id)) {
+            return;
+        }
+
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer entry = ByteBuffer.allocate(HEADER_SIZE + bytes.length)
+                .put((byte) kind.ordinal())
+                .putInt(id)
+                .putInt(bytes.length)
+                .put(bytes)
+                .flip();
+        while (entry.hasRemaining()) {
+            channel.write(entry);
+        }
+        entries.get(kind).put(id, name);
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    private void recover() throws IOException {
+        ByteBuffer content = ByteBuffer.allocate((int) channel.size());
+        while (content.hasRemaining()) {
+            if (channel.read(content, content.position()) < 0) {
+                break;
+            }
+        }
+        content.flip();
+
+        while (content.remaining() >= HEADER_SIZE) {
+            int start = content.position();
+            int kind = content.get();
+            int id = content.getInt();
+            int length = content.getInt();
+            if (kind < 0 || kind >= DictionaryKind.values().length || length < 0 || length > content.remaining()) {
+                content.position(start);
+                break;
+            }
+            byte[] bytes = new byte[length];
+            content.get(bytes);
+            entries.get(DictionaryKind.values()[kind]).put(id, new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        channel.truncate(content.position());
+        channel.position(content.position());
+    }
+}
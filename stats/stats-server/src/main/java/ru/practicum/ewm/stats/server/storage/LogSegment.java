@@ -0,0 +1,198 @@
+package ru.practicum.ewm.stats.server.storage;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * A memory-mapped file of fixed-width 32-byte hit records: app id (4), uri id (4), ip (16, IPv4 mapped
+ * into IPv6) and the biased epoch second (8). The timestamp is written last and is never zero for a
+ * stored record, so it doubles as the commit marker: recovery keeps the records before the first zero
+ * timestamp and clears any stale ones after it, which pages flushed out of order may have left behind. Every 4096 records form a block whose min/max timestamps are kept in memory, which lets
+ * scans skip the blocks outside the requested range.
+ */
+class LogSegment {
+
+    static final int RECORD_SIZE = 32;
+
+    private static final int BLOCK_RECORDS = 4096;
+    private static final int APP_OFFSET = 0;
+    private static final int URI_OFFSET = 4;
+    private static final int IP_OFFSET = 8;
+    private static final int IP_LENGTH = 16;
+    private static final int TIMESTAMP_OFFSET = 24;
+    private static final long TIMESTAMP_BIAS = 1L << 40;
+    private static final byte[] IPV4_PREFIX = {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, (byte) 0xff, (byte) 0xff};
+
+    private final long sequence;
+    private final Path path;
+    private final int capacity;
+    private final MappedByteBuffer buffer;
+    private final long[] blockMin;
+    private final long[] blockMax;
+    private volatile int size;
+
+    private LogSegment(long sequence, Path path, int capacity, MappedByteBuffer buffer) {
+        this.sequence = sequence;
+        this.path = path;
+        this.capacity = capacity;
+        this.buffer = buffer;
+        int blocks = (capacity + BLOCK_RECORDS - 1) / BLOCK_RECORDS;
+        this.blockMin = new long[blocks];
+        this.blockMax = new long[blocks];
+        Arrays.fill(blockMin, Long.MAX_VALUE);
+        Arrays.fill(blockMax, Long.MIN_VALUE);
+    }
+
+    static LogSegment open(Path path, long sequence, int capacity) throws IOException {
+        long existing = Files.exists(path) ? Files.size(path) / RECORD_SIZE : 0;
+        int records = (int) Math.max(capacity, existing);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) records * RECORD_SIZE);
+            LogSegment segment = new LogSegment(sequence, path, records, buffer);
+            segment.recover();
+            return segment;
+        }
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    long getMaxEpochSecond() {
+        return Arrays.stream(blockMax).max().orElse(Long.MIN_VALUE);
+    }
+
+    long append(Integer appId, Integer uriId, byte[] ip, long epochSecond) {
+        int record = size;
+        int offset = record * RECORD_SIZE;
+
+        buffer.putInt(offset + APP_OFFSET, appId == null ? 0 : appId);
+        buffer.putInt(offset + URI_OFFSET, uriId == null ? 0 : uriId);
+        byte[] packed = packIp(ip);
+        for (int i = 0; i < IP_LENGTH; i++) {
+            buffer.put(offset + IP_OFFSET + i, packed[i]);
+        }
+        buffer.putLong(offset + TIMESTAMP_OFFSET, epochSecond + TIMESTAMP_BIAS);
+
+        index(record, epochSecond);
+        size = record + 1;
+        return (sequence << Integer.SIZE) + record + 1;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void scan(long fromEpochSecond, long toEpochSecond, Set<Integer> uriIds, RecordVisitor visitor) {
+        int count = size;
+        for (int block = 0; block * BLOCK_RECORDS < count; block++) {
+            if (blockMax[block] < fromEpochSecond || blockMin[block] >= toEpochSecond) {
+                continue;
+            }
+
+            int end = Math.min(count, (block + 1) * BLOCK_RECORDS);
+            for (int record = block * BLOCK_RECORDS; record < end; record++) {
+                int offset = record * RECORD_SIZE;
+                long epochSecond = buffer.getLong(offset + TIMESTAMP_OFFSET) - TIMESTAMP_BIAS;
+                if (epochSecond < fromEpochSecond || epochSecond >= toEpochSecond) {
+                    continue;
+                }
+                int uriId = buffer.getInt(offset + URI_OFFSET);
+                if (!uriIds.isEmpty() && !uriIds.contains(uriId)) {
+                    continue;
+                }
+                int appId = buffer.getInt(offset + APP_OFFSET);
+                visitor.visit(appId == 0 ? null : appId, uriId == 0 ? null : uriId, record);
+            }
+        }
+    }
+
+    long readEpochSecond(int record) {
+        return buffer.getLong(record * RECORD_SIZE + TIMESTAMP_OFFSET) - TIMESTAMP_BIAS;
+    }
+
+    byte[] readIp(int record) {
+        byte[] packed = new byte[IP_LENGTH];
+        int offset = record * RECORD_SIZE + IP_OFFSET;
+        boolean empty = true;
+        for (int i = 0; i < IP_LENGTH; i++) {
+            packed[i] = buffer.get(offset + i);
+            empty &= packed[i] == 0;
+        }
+
+        if (empty) {
+            return null;
+        }
+        if (Arrays.equals(packed, 0, IPV4_PREFIX.length, IPV4_PREFIX, 0, IPV4_PREFIX.length)) {
+            return Arrays.copyOfRange(packed, IPV4_PREFIX.length, IP_LENGTH);
+        }
+        return packed;
+    }
+
+    private void recover() {
+        int record = 0;
+        while (record < capacity) {
+            long stored = buffer.getLong(record * RECORD_SIZE + TIMESTAMP_OFFSET);
+            if (stored == 0) {
+                break;
+            }
+            index(record, stored - TIMESTAMP_BIAS);
+            record++;
+        }
+        size = record;
+
+        boolean cleared = false;
+        for (int stale = record + 1; stale < capacity; stale++) {
+            if (buffer.getLong(stale * RECORD_SIZE + TIMESTAMP_OFFSET) != 0) {
+                buffer.putLong(stale * RECORD_SIZE + TIMESTAMP_OFFSET, 0);
+                cleared = true;
+            }
+        }
+        if (cleared) {
+            buffer.force();
+        }
+    }
+
+    private void index(int record, long epochSecond) {
+        int block = record / BLOCK_RECORDS;
+        blockMin[block] = Math.min(blockMin[block], epochSecond);
+        blockMax[block] = Math.max(blockMax[block], epochSecond);
+    }
+
+    private static byte[] packIp(byte[] ip) {
+        byte[] packed = new byte[IP_LENGTH];
+        if (ip == null) {
+            return packed;
+        }
+        if (ip.length == IP_LENGTH) {
+            return ip;
+        }
+        System.arraycopy(IPV4_PREFIX, 0, packed, 0, IPV4_PREFIX.length);
+        System.arraycopy(ip, 0, packed, IPV4_PREFIX.length, ip.length);
+        return packed;
+    }
+
+    interface RecordVisitor {
+        void visit(Integer appId, Integer uriId, int record);
+    }
+}
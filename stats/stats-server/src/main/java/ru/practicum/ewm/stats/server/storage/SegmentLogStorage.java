@@ -0,0 +1,331 @@
+package ru.practicum.ewm.stats.server.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.ewm.stats.server.model.AppUri;
+import ru.practicum.ewm.stats.server.model.DictionaryKind;
+import ru.practicum.ewm.stats.server.model.EndpointHit;
+import ru.practicum.ewm.stats.server.model.HitCount;
+import ru.practicum.ewm.stats.server.model.RollupGranularity;
+import ru.practicum.ewm.stats.server.repository.DictionaryRepository;
+import ru.practicum.ewm.stats.server.repository.HitStorage;
+import ru.practicum.ewm.stats.server.repository.RollupRepository;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only alternative to the JDBC hit storage, enabled with {@code stats.storage.engine=log}.
+ * Hits are appended to memory-mapped {@link LogSegment} files that roll over when full, and reads are
+ * sequential scans over the segments whose time index overlaps the requested range. On startup the
+ * dictionary is restored from the journal kept next to the segments, and the log is replayed into the
+ * rollups when those are empty. Unique-count sketches are folded from the log by the sketch fold job.
+ * <p>
+ * The database transaction that writes the rollups is the commit point: hits are appended
+ * only after it commits, so a rolled-back request never reaches the log. Appends take a short lock, while
+ * {@code force()} runs outside it and is shared by every append that was waiting for it (group commit).
+ * <p>
+ * A crash between that commit and the forced append leaves rollups counting hits the log never stored.
+ * A clean shutdown leaves a marker file; when it is missing on startup, the rollups from the start of the
+ * retained range on are deleted and rebuilt from the log. Ingest rejects older timestamps, and segments are
+ * only dropped once all their hits are older than that, so the log holds every hit of the rebuilt buckets.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "stats.storage.engine", havingValue = "log")
+public class SegmentLogStorage implements HitStorage {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String JOURNAL_NAME = "dictionary.journal";
+    private static final String CLEAN_SHUTDOWN_MARKER = "clean-shutdown";
+    private static final int REPLAY_BATCH_SIZE = 10000;
+
+    private final Path directory;
+    private final int segmentRecords;
+    private final List<LogSegment> segments = new CopyOnWriteArrayList<>();
+    private final DictionaryJournal journal;
+    private final Object flushLock = new Object();
+    private final Set<LogSegment> unflushed = new LinkedHashSet<>();
+    private LogSegment active;
+    private long appended;
+    private volatile long flushed;
+
+    public SegmentLogStorage(DictionaryRepository dictionaryRepository, RollupRepository rollupRepository,
+                             @Value("${stats.storage.log.directory:data/stats-log}") String directory,
+                             @Value("${stats.storage.log.segment-records:1048576}") int segmentRecords,
+                             @Value("${stats.partition.retention-days:90}") int retentionDays)
+            throws IOException {
+        this.directory = Paths.get(directory);
+        this.segmentRecords = segmentRecords;
+        Files.createDirectories(this.directory);
+
+        journal = DictionaryJournal.open(this.directory.resolve(JOURNAL_NAME));
+        for (DictionaryKind kind : DictionaryKind.values()) {
+            dictionaryRepository.restore(kind, journal.getEntries(kind));
+        }
+
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (Path path : files.filter(SegmentLogStorage::isSegment).sorted().collect(Collectors.toList())) {
+                LogSegment segment = LogSegment.open(path, parseSequence(path), segmentRecords);
+                segments.add(segment);
+                log.info("Recovered {} hits from segment {}", segment.getSize(), path);
+            }
+        }
+        active = segments.isEmpty() ? roll(0) : segments.get(segments.size() - 1);
+
+        boolean cleanShutdown = Files.deleteIfExists(this.directory.resolve(CLEAN_SHUTDOWN_MARKER));
+        if (rollupRepository.isEmpty()) {
+            replay(rollupRepository, Long.MIN_VALUE);
+        } else if (!cleanShutdown) {
+            LocalDateTime from = RollupGranularity.HOUR.ceil(LocalDateTime.now().minusDays(retentionDays));
+            log.warn("Hits log was not closed cleanly, rebuilding rollups from {} on", from);
+            rollupRepository.deleteFrom(from);
+            replay(rollupRepository, epochSecond(from));
+        }
+    }
+
+    /**
+     * Forces every appended hit and leaves the marker that lets the next startup skip the rollup repair.
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        long position;
+        synchronized (this) {
+            position = appended;
+        }
+        awaitFlushed(position);
+        Files.write(directory.resolve(CLEAN_SHUTDOWN_MARKER), new byte[0]);
+    }
+
+    /**
+     * Inside a transaction the hit is appended once it commits, so its id is only assigned then.
+     */
+    @Override
+    public EndpointHit save(EndpointHit hit) {
+        afterCommit(List.of(hit));
+        return hit;
+    }
+
+    @Override
+    public void saveAllInBatch(List<EndpointHit> hits) {
+        afterCommit(hits);
+    }
+
+    @Override
+    public List<HitCount> getStats(LocalDateTime from, LocalDateTime to, List<Integer> uriIds) {
+        Map<AppUri, Long> counts = new HashMap<>();
+        scan(from, to, uriIds, (segment, appId, uriId, record) ->
+                counts.merge(new AppUri(appId, uriId), 1L, Long::sum));
+
+        return counts.entrySet().stream()
+                .map(e -> new HitCount(e.getKey().getAppId(), e.getKey().getUriId(), e.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<HitCount> getUniqueStats(LocalDateTime from, LocalDateTime to, List<Integer> uriIds) {
+        Map<AppUri, Set<ByteBuffer>> ips = new HashMap<>();
+        scan(from, to, uriIds, (segment, appId, uriId, record) -> {
+            Set<ByteBuffer> keyIps = ips.computeIfAbsent(new AppUri(appId, uriId), k -> new HashSet<>());
+            byte[] ip = segment.readIp(record);
+            if (ip != null) {
+                keyIps.add(ByteBuffer.wrap(ip));
+            }
+        });
+
+        return ips.entrySet().stream()
+                .map(e -> new HitCount(e.getKey().getAppId(), e.getKey().getUriId(), (long) e.getValue().size()))
+                .sorted(Comparator.comparing(HitCount::getHits).reversed())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<EndpointHit> getDistinctIps(LocalDateTime from, LocalDateTime to, List<Integer> uriIds) {
+        Map<AppUri, Set<ByteBuffer>> ips = new HashMap<>();
+        scan(from, to, uriIds, (segment, appId, uriId, record) -> {
+            byte[] ip = segment.readIp(record);
+            if (ip != null) {
+                ips.computeIfAbsent(new AppUri(appId, uriId), k -> new HashSet<>()).add(ByteBuffer.wrap(ip));
+            }
+        });
+
+        return ips.entrySet().stream()
+                .flatMap(e -> e.getValue().stream().map(ip -> EndpointHit.builder()
+                        .appId(e.getKey().getAppId())
+                        .uriId(e.getKey().getUriId())
+                        .ip(ip.array())
+                        .build()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public synchronized void maintain(LocalDateTime horizon) {
+        long horizonSecond = epochSecond(horizon);
+        for (LogSegment segment : segments) {
+            if (segment == active || segment.getMaxEpochSecond() >= horizonSecond) {
+                continue;
+            }
+            segments.remove(segment);
+            try {
+                Files.deleteIfExists(segment.getPath());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            log.info("Dropped hits segment {}", segment.getPath());
+        }
+    }
+
+    private void afterCommit(List<EndpointHit> hits) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(hits);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                write(hits);
+            }
+        });
+    }
+
+    private void write(List<EndpointHit> hits) {
+        long position;
+        synchronized (this) {
+            for (EndpointHit hit : hits) {
+                unflushed.add(append(hit));
+            }
+            appended += hits.size();
+            position = appended;
+        }
+        awaitFlushed(position);
+    }
+
+    /**
+     * Returns once everything up to {@code position} is on disk. The thread that gets the flush lock forces
+     * all appends made so far, so the threads queued behind it usually find their position already flushed.
+     */
+    private void awaitFlushed(long position) {
+        synchronized (flushLock) {
+            if (flushed >= position) {
+                return;
+            }
+
+            long target;
+            List<LogSegment> written;
+            synchronized (this) {
+                target = appended;
+                written = new ArrayList<>(unflushed);
+                unflushed.clear();
+            }
+            boolean forced = false;
+            try {
+                journal.force();
+                written.forEach(LogSegment::force);
+                forced = true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (!forced) {
+                    synchronized (this) {
+                        unflushed.addAll(written);
+                    }
+                }
+            }
+            flushed = target;
+        }
+    }
+
+    private LogSegment append(EndpointHit hit) {
+        try {
+            journal.record(DictionaryKind.APP, hit.getAppId(), hit.getApp());
+            journal.record(DictionaryKind.URI, hit.getUriId(), hit.getUri());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (active.isFull()) {
+            active = roll(active.getSequence() + 1);
+        }
+        hit.setId(active.append(hit.getAppId(), hit.getUriId(), hit.getIp(), epochSecond(hit.getTimestamp())));
+        return active;
+    }
+
+    private void replay(RollupRepository rollupRepository, long fromEpochSecond) {
+        List<EndpointHit> batch = new ArrayList<>();
+        long[] replayed = new long[1];
+        for (LogSegment segment : segments) {
+            segment.scan(fromEpochSecond, Long.MAX_VALUE, Collections.emptySet(), (appId, uriId, record) -> {
+                replayed[0]++;
+                batch.add(EndpointHit.builder()
+                        .appId(appId)
+                        .uriId(uriId)
+                        .ip(segment.readIp(record))
+                        .timestamp(LocalDateTime.ofEpochSecond(segment.readEpochSecond(record), 0, ZoneOffset.UTC))
+                        .build());
+                if (batch.size() == REPLAY_BATCH_SIZE) {
+                    rollupRepository.addHits(batch);
+                    batch.clear();
+                }
+            });
+        }
+        rollupRepository.addHits(batch);
+        log.info("Replayed {} logged hits into rollups", replayed[0]);
+    }
+
+    private LogSegment roll(long sequence) {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        try {
+            LogSegment segment = LogSegment.open(path, sequence, segmentRecords);
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void scan(LocalDateTime from, LocalDateTime to, List<Integer> uriIds, SegmentVisitor visitor) {
+        long fromSecond = epochSecond(from);
+        long toSecond = epochSecond(to);
+        Set<Integer> uriFilter = new HashSet<>(uriIds);
+
+        for (LogSegment segment : segments) {
+            segment.scan(fromSecond, toSecond, uriFilter,
+                    (appId, uriId, record) -> visitor.visit(segment, appId, uriId, record));
+        }
+    }
+
+    private static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private static long parseSequence(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private interface SegmentVisitor {
+        void visit(LogSegment segment, Integer appId, Integer uriId, int record);
+    }
+}
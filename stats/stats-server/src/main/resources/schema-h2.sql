@@ -0,0 +1,11 @@
+CREATE SEQUENCE IF NOT EXISTS hits_id_seq;
+
+CREATE TABLE IF NOT EXISTS hits
+(
+   id BIGINT DEFAULT NEXT VALUE FOR hits_id_seq NOT NULL,
+   app_id INTEGER,
+   uri_id INTEGER,
+   ip BYTEA,
+   timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+   CONSTRAINT pk_hits PRIMARY KEY (id)
+);
@@ -0,0 +1,13 @@
+CREATE SEQUENCE IF NOT EXISTS hits_id_seq;
+
+CREATE TABLE IF NOT EXISTS hits
+(
+   id BIGINT DEFAULT nextval('hits_id_seq') NOT NULL,
+   app_id INTEGER,
+   uri_id INTEGER,
+   ip BYTEA,
+   timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+   CONSTRAINT pk_hits PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+CREATE INDEX IF NOT EXISTS idx_hits_timestamp ON hits (timestamp);
@@ -1,11 +1,48 @@
-DROP TABLE IF EXISTS hits;
+CREATE TABLE IF NOT EXISTS apps
+(
+   id INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+   name VARCHAR(255) NOT NULL,
+   CONSTRAINT pk_apps PRIMARY KEY (id),
+   CONSTRAINT uq_apps_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS uris
+(
+   id INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+   name VARCHAR(512) NOT NULL,
+   CONSTRAINT pk_uris PRIMARY KEY (id),
+   CONSTRAINT uq_uris_name UNIQUE (name)
+);
+
+CREATE TABLE IF NOT EXISTS hits_minute
+(
+   app_id INTEGER NOT NULL,
+   uri_id INTEGER NOT NULL,
+   bucket TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+   hits BIGINT NOT NULL,
+   CONSTRAINT pk_hits_minute PRIMARY KEY (app_id, uri_id, bucket)
+);
 
-CREATE TABLE IF NOT EXISTS hits
+CREATE INDEX IF NOT EXISTS idx_hits_minute_bucket ON hits_minute (bucket);
+
+CREATE TABLE IF NOT EXISTS hits_hour
 (
-  id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
-   app VARCHAR(255),
-   uri VARCHAR(512),
-   ip VARCHAR(45),
-   timestamp TIMESTAMP WITHOUT TIME ZONE,
-   CONSTRAINT pk_hits PRIMARY KEY (id)
-);
\ No newline at end of file
+   app_id INTEGER NOT NULL,
+   uri_id INTEGER NOT NULL,
+   bucket TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+   hits BIGINT NOT NULL,
+   CONSTRAINT pk_hits_hour PRIMARY KEY (app_id, uri_id, bucket)
+);
+
+CREATE INDEX IF NOT EXISTS idx_hits_hour_bucket ON hits_hour (bucket);
+
+CREATE TABLE IF NOT EXISTS hits_hll
+(
+   app_id INTEGER NOT NULL,
+   uri_id INTEGER NOT NULL,
+   bucket TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+   registers BYTEA NOT NULL,
+   CONSTRAINT pk_hits_hll PRIMARY KEY (app_id, uri_id, bucket)
+);
+
+CREATE INDEX IF NOT EXISTS idx_hits_hll_bucket ON hits_hll (bucket);
@@ -0,0 +1,47 @@
+package ru.practicum.ewm.stats.server.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.ewm.stats.dto.EndpointHitDto;
+import ru.practicum.ewm.stats.server.StatsServerApp;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+final class BenchmarkHits {
+
+    static final int URIS = 50;
+    static final int IPS = 20_000;
+    static final int DAYS = 30;
+
+    private BenchmarkHits() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(StatsServerApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.jpa.show_sql=false", "logging.level.root=WARN")
+                .properties(properties)
+                .run();
+    }
+
+    static List<EndpointHitDto> generate(int count, LocalDateTime end, long seed) {
+        Random random = new Random(seed);
+        long rangeSeconds = DAYS * 24L * 3600;
+        List<EndpointHitDto> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int ip = random.nextInt(IPS);
+            hits.add(EndpointHitDto.builder()
+                    .app("ewm-main-service")
+                    .uri("/events/" + random.nextInt(URIS))
+                    .ip("10." + (ip >> 16) + "." + ((ip >> 8) & 0xFF) + "." + (ip & 0xFF))
+                    .timestamp(end.minusSeconds((long) (random.nextDouble() * rangeSeconds)))
+                    .build());
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.ewm.stats.server.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.ewm.stats.dto.EndpointHitDto;
+import ru.practicum.ewm.stats.server.service.StatsService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest cost of {@code batch} hits sent one by one, as POST /hit does, against a single POST /hits call.
+ * Run after {@code mvn -pl stats/stats-server -am test-compile} with
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main HitIngestBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HitIngestBenchmark {
+
+    private static final int ROUNDS = 100;
+
+    @Param({"100"})
+    private int batch;
+
+    private ConfigurableApplicationContext context;
+    private StatsService statsService;
+    private List<EndpointHitDto> hits;
+    private int nextRound;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkHits.start();
+        statsService = context.getBean(StatsService.class);
+        hits = BenchmarkHits.generate(ROUNDS * batch, LocalDateTime.now().truncatedTo(ChronoUnit.HOURS), 3);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void singleHits() {
+        nextRound().forEach(statsService::create);
+    }
+
+    @Benchmark
+    public void batchedHits() {
+        statsService.createAll(nextRound());
+    }
+
+    private List<EndpointHitDto> nextRound() {
+        int from = nextRound * batch;
+        nextRound = (nextRound + 1) % ROUNDS;
+        return hits.subList(from, from + batch);
+    }
+}
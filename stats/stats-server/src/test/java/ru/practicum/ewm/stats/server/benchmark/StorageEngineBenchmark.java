@@ -0,0 +1,86 @@
+package ru.practicum.ewm.stats.server.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import ru.practicum.ewm.stats.dto.EndpointHitDto;
+import ru.practicum.ewm.stats.dto.ViewStatsDto;
+import ru.practicum.ewm.stats.server.service.StatsService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest throughput and exact unique-count latency of the JDBC hit storage against the segment log.
+ * Run after {@code mvn -pl stats/stats-server -am test-compile} with
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main StorageEngineBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StorageEngineBenchmark {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int BATCH = 1_000;
+
+    @Param({"jdbc", "log"})
+    private String engine;
+
+    @Param({"200000"})
+    private int hits;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private StatsService statsService;
+    private List<EndpointHitDto> batches;
+    private int nextBatch;
+    private String start;
+    private String end;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("stats-log-benchmark");
+        context = BenchmarkHits.start("stats.storage.engine=" + engine,
+                "stats.storage.log.directory=" + directory);
+        statsService = context.getBean(StatsService.class);
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        List<EndpointHitDto> generated = BenchmarkHits.generate(hits, now, 1);
+        for (int i = 0; i < generated.size(); i += BATCH) {
+            statsService.createAll(generated.subList(i, Math.min(i + BATCH, generated.size())));
+        }
+        batches = BenchmarkHits.generate(100 * BATCH, now, 2);
+        start = FORMATTER.format(now.minusDays(7));
+        end = FORMATTER.format(now);
+        if (uniqueWeek().size() != BenchmarkHits.URIS) {
+            throw new IllegalStateException("Seeded hits are not visible to the stats queries");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void ingestBatch() {
+        int from = nextBatch * BATCH;
+        statsService.createAll(batches.subList(from, from + BATCH));
+        nextBatch = (nextBatch + 1) % (batches.size() / BATCH);
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> uniqueWeek() {
+        return statsService.getStats(start, end, List.of(), true, false);
+    }
+}
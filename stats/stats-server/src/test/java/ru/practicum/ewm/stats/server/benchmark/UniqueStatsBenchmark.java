@@ -0,0 +1,72 @@
+package ru.practicum.ewm.stats.server.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.ewm.stats.dto.EndpointHitDto;
+import ru.practicum.ewm.stats.dto.ViewStatsDto;
+import ru.practicum.ewm.stats.server.service.SketchFoldJob;
+import ru.practicum.ewm.stats.server.service.StatsService;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exact COUNT(DISTINCT ip) against merged hourly HyperLogLog sketches for unique=true stats over a week.
+ * The sketches are folded once after seeding, as the scheduled fold job would have done.
+ * Run after {@code mvn -pl stats/stats-server -am test-compile} with
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main UniqueStatsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UniqueStatsBenchmark {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Param({"200000"})
+    private int hits;
+
+    private ConfigurableApplicationContext context;
+    private StatsService statsService;
+    private String start;
+    private String end;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkHits.start();
+        statsService = context.getBean(StatsService.class);
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        List<EndpointHitDto> generated = BenchmarkHits.generate(hits, now, 1);
+        for (int i = 0; i < generated.size(); i += 5_000) {
+            statsService.createAll(generated.subList(i, Math.min(i + 5_000, generated.size())));
+        }
+        context.getBean(SketchFoldJob.class).fold();
+        start = FORMATTER.format(now.minusDays(7));
+        end = FORMATTER.format(now);
+        if (exact().size() != BenchmarkHits.URIS || approximate().size() != BenchmarkHits.URIS) {
+            throw new IllegalStateException("Seeded hits are not visible to the stats queries");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> exact() {
+        return statsService.getStats(start, end, List.of(), true, false);
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> approximate() {
+        return statsService.getStats(start, end, List.of(), true, true);
+    }
+}
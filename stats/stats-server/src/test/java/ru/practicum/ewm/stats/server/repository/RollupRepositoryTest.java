@@ -0,0 +1,83 @@
+package ru.practicum.ewm.stats.server.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.ewm.stats.dto.EndpointHitDto;
+import ru.practicum.ewm.stats.server.model.RollupGranularity;
+import ru.practicum.ewm.stats.server.service.StatsService;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class RollupRepositoryTest {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final LocalDateTime DAY = LocalDateTime.now().truncatedTo(ChronoUnit.DAYS).minusDays(2);
+
+    @Autowired
+    private RollupRepository rollupRepository;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clean() {
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            jdbcTemplate.update("DELETE FROM " + granularity.getTable());
+        }
+    }
+
+    @Test
+    void seriesIsReadInsideReadOnlyTransaction() {
+        statsService.createAll(List.of(hit("/events/1", DAY.plusMinutes(5))));
+        List<Boolean> readOnly = new ArrayList<>();
+
+        rollupRepository.streamSeries(RollupGranularity.HOUR, DAY, DAY.plusDays(1), List.of(), rs ->
+                readOnly.add(TransactionSynchronizationManager.isActualTransactionActive()
+                        && TransactionSynchronizationManager.isCurrentTransactionReadOnly()));
+
+        assertThat(readOnly).containsExactly(true);
+    }
+
+    @Test
+    void timeSeriesGroupsHitsIntoSteps() throws Exception {
+        statsService.createAll(List.of(
+                hit("/events/1", DAY.plusHours(1)),
+                hit("/events/1", DAY.plusHours(1).plusMinutes(30)),
+                hit("/events/1", DAY.plusHours(3)),
+                hit("/events/2", DAY.plusHours(2))));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        statsService.getTimeSeries(FORMATTER.format(DAY), FORMATTER.format(DAY.plusDays(1).minusSeconds(1)),
+                List.of("/events/1"), "1h").writeTo(out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("[{\"app\":\"ewm-main-service\","
+                + "\"uri\":\"/events/1\",\"points\":["
+                + "{\"bucket\":\"" + FORMATTER.format(DAY.plusHours(1)) + "\",\"hits\":2},"
+                + "{\"bucket\":\"" + FORMATTER.format(DAY.plusHours(3)) + "\",\"hits\":1}]}]");
+    }
+
+    private static EndpointHitDto hit(String uri, LocalDateTime timestamp) {
+        return EndpointHitDto.builder()
+                .app("ewm-main-service")
+                .uri(uri)
+                .ip("10.0.0.1")
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.ewm.stats.server.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.ewm.stats.server.model.AppUri;
+import ru.practicum.ewm.stats.server.model.EndpointHit;
+import ru.practicum.ewm.stats.server.sketch.HyperLogLog;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SketchRepositoryTest {
+
+    private static final LocalDateTime HOUR = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Autowired
+    private SketchRepository sketchRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.update("DELETE FROM hits_hll");
+    }
+
+    @Test
+    void replaceBucketOverwritesPreviousSketchesOfThatHourOnly() {
+        sketchRepository.replaceBucket(HOUR, hits(1, 0, 1_000));
+        sketchRepository.replaceBucket(HOUR.plusHours(1), hits(1, 0, 10));
+        List<EndpointHit> refolded = hits(1, 0, 1_500);
+        refolded.addAll(hits(2, 0, 10));
+        sketchRepository.replaceBucket(HOUR, refolded);
+
+        Map<AppUri, HyperLogLog> sketches = new HashMap<>();
+        sketchRepository.mergeSketches(sketches, HOUR, HOUR.plusHours(1), List.of());
+
+        assertThat(sketches.get(new AppUri(1, 1)).estimate()).isBetween(1_450L, 1_550L);
+        assertThat(sketches.get(new AppUri(1, 2)).estimate()).isEqualTo(10L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hits_hll", Integer.class)).isEqualTo(3);
+        assertThat(sketchRepository.findLatestBucket()).contains(HOUR.plusHours(1));
+    }
+
+    @Test
+    void deleteBeforeDropsOnlyOlderBuckets() {
+        sketchRepository.replaceBucket(HOUR, hits(1, 0, 10));
+        sketchRepository.replaceBucket(HOUR.plusDays(1), hits(1, 0, 10));
+
+        assertThat(sketchRepository.deleteBefore(HOUR.plusHours(1))).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hits_hll", Integer.class)).isEqualTo(1);
+    }
+
+    private static List<EndpointHit> hits(int uriId, int fromIp, int toIp) {
+        List<EndpointHit> hits = new ArrayList<>();
+        for (int ip = fromIp; ip < toIp; ip++) {
+            hits.add(EndpointHit.builder()
+                    .appId(1)
+                    .uriId(uriId)
+                    .ip(ByteBuffer.allocate(Integer.BYTES).putInt(ip).array())
+                    .build());
+        }
+        return hits;
+    }
+}
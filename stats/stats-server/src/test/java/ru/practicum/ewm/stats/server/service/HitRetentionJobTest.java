@@ -0,0 +1,147 @@
+package ru.practicum.ewm.stats.server.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import ru.practicum.ewm.stats.dto.EndpointHitDto;
+import ru.practicum.ewm.stats.dto.ViewStatsDto;
+import ru.practicum.ewm.stats.server.mapper.EndpointHitMapper;
+import ru.practicum.ewm.stats.server.model.EndpointHit;
+import ru.practicum.ewm.stats.server.model.RollupGranularity;
+import ru.practicum.ewm.stats.server.repository.HitPartitionRepository;
+import ru.practicum.ewm.stats.server.repository.HitStorage;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+class HitRetentionJobTest {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int DISTINCT_IPS = 300;
+
+    @Autowired
+    private HitRetentionJob hitRetentionJob;
+
+    @Autowired
+    private HitPartitionRepository partitionRepository;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private StatsDictionary statsDictionary;
+
+    @Autowired
+    private HitStorage hitStorage;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void clean() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).build();
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            jdbcTemplate.update("DELETE FROM " + granularity.getTable());
+        }
+        jdbcTemplate.update("DELETE FROM hits_hll");
+    }
+
+    @Test
+    void foldBuildsMissingRollupsAndSketchesBeforeDroppingPartition() {
+        LocalDateTime day = LocalDateTime.now().minusDays(200).truncatedTo(ChronoUnit.DAYS);
+        List<EndpointHit> backfill = hits(day).stream()
+                .map(EndpointHitMapper::toEndpointHit)
+                .collect(Collectors.toList());
+        statsDictionary.encode(backfill);
+        hitStorage.saveAllInBatch(backfill);
+
+        hitRetentionJob.maintain();
+
+        assertThat(partitionRepository.getPartitionsBefore(hitRetentionJob.getRawDataHorizon())).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hits_hll", Integer.class)).isEqualTo(3);
+
+        String start = FORMATTER.format(day);
+        String end = FORMATTER.format(day.plusDays(1));
+        List<ViewStatsDto> total = statsService.getStats(start, end, List.of("/events/1"), false, false);
+        List<ViewStatsDto> unique = statsService.getStats(start, end, List.of("/events/1"), true, false);
+
+        assertThat(total).extracting(ViewStatsDto::getHits).containsExactly(2L * DISTINCT_IPS);
+        assertThat(unique).extracting(ViewStatsDto::getHits).singleElement()
+                .satisfies(hits -> assertThat(hits).isBetween(290L, 310L));
+        assertThat(statsService.isEstimated(start, true, false)).isTrue();
+        assertThat(statsService.isEstimated(start, false, false)).isFalse();
+    }
+
+    @Test
+    void ingestRejectsTimestampsOutsideRetentionAndClockSkew() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime future = now.plusDays(400);
+        EndpointHitDto valid = hits(now).get(0);
+        EndpointHitDto expired = hits(now.minusDays(200)).get(0);
+        EndpointHitDto early = hits(future).get(0);
+
+        mockMvc.perform(post("/hit").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(expired)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/hits").contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(valid, early))))
+                .andExpect(status().isBadRequest());
+
+        assertThat(partitionRepository.getPartitionsBefore(future.plusDays(1)))
+                .doesNotContain(partitionRepository.getPeriod().floor(future));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hits_minute", Integer.class)).isZero();
+    }
+
+    @Test
+    void statsResponseFlagsEstimatedUniqueCounts() throws Exception {
+        String recent = FORMATTER.format(LocalDateTime.now().minusDays(1));
+        String old = FORMATTER.format(LocalDateTime.now().minusDays(200));
+        String end = FORMATTER.format(LocalDateTime.now());
+
+        mockMvc.perform(get("/stats").param("start", recent).param("end", end).param("unique", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Stats-Estimated", "false"));
+        mockMvc.perform(get("/stats").param("start", old).param("end", end).param("unique", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Stats-Estimated", "true"));
+    }
+
+    private static List<EndpointHitDto> hits(LocalDateTime day) {
+        List<EndpointHitDto> hits = new ArrayList<>();
+        for (int i = 0; i < 2 * DISTINCT_IPS; i++) {
+            hits.add(EndpointHitDto.builder()
+                    .app("ewm-main-service")
+                    .uri("/events/1")
+                    .ip("10.0." + (i % DISTINCT_IPS / 256) + "." + (i % DISTINCT_IPS % 256))
+                    .timestamp(day.plusHours(i % 3).plusMinutes(i % 60))
+                    .build());
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.ewm.stats.server.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.practicum.ewm.stats.dto.EndpointHitDto;
+import ru.practicum.ewm.stats.dto.ViewStatsDto;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SketchFoldJobTest {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private SketchFoldJob sketchFoldJob;
+
+    @Autowired
+    private StatsService statsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.update("DELETE FROM hits_hll");
+    }
+
+    @Test
+    void foldBuildsSketchesForClosedHoursOnlyAndQueriesReadRawHitsForTheRest() {
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime closedHour = currentHour.minusHours(3);
+        statsService.createAll(hits("/fold/closed", closedHour, 300));
+        statsService.createAll(hits("/fold/open", currentHour, 50));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hits_hll", Integer.class)).isZero();
+
+        sketchFoldJob.fold();
+
+        assertThat(sketchCount(closedHour)).isEqualTo(1);
+        assertThat(sketchCount(currentHour)).isZero();
+        assertThat(sketchFoldJob.getFoldedUntil()).isAfter(closedHour).isBeforeOrEqualTo(currentHour);
+
+        List<ViewStatsDto> stats = statsService.getStats(FORMATTER.format(closedHour),
+                FORMATTER.format(LocalDateTime.now()), List.of("/fold/closed", "/fold/open"), true, true);
+
+        assertThat(stats).extracting(ViewStatsDto::getUri).containsExactly("/fold/closed", "/fold/open");
+        assertThat(stats.get(0).getHits()).isBetween(290L, 310L);
+        assertThat(stats.get(1).getHits()).isBetween(48L, 52L);
+    }
+
+    private int sketchCount(LocalDateTime bucket) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hits_hll WHERE bucket = ?", Integer.class,
+                Timestamp.valueOf(bucket));
+    }
+
+    private static List<EndpointHitDto> hits(String uri, LocalDateTime hour, int distinctIps) {
+        List<EndpointHitDto> hits = new ArrayList<>();
+        for (int i = 0; i < 2 * distinctIps; i++) {
+            hits.add(EndpointHitDto.builder()
+                    .app("ewm-main-service")
+                    .uri(uri)
+                    .ip("10.1." + (i % distinctIps / 256) + "." + (i % distinctIps % 256))
+                    .timestamp(hour)
+                    .build());
+        }
+        return hits;
+    }
+}
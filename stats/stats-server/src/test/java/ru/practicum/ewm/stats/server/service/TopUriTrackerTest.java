@@ -0,0 +1,71 @@
+package ru.practicum.ewm.stats.server.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewm.stats.server.exception.BadRequestException;
+import ru.practicum.ewm.stats.server.model.EndpointHit;
+import ru.practicum.ewm.stats.server.model.TopWindow;
+import ru.practicum.ewm.stats.server.model.ViewStats;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class TopUriTrackerTest {
+
+    private static final String APP = "ewm-main-service";
+
+    private final TopUriTracker tracker = new TopUriTracker(10);
+
+    @Test
+    void topUrisAreOrderedByHitsPerApp() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EndpointHit> hits = new ArrayList<>();
+        hits.addAll(hits(APP, "/events/1", 3, now));
+        hits.addAll(hits(APP, "/events/2", 7, now));
+        hits.addAll(hits(APP, "/events/3", 5, now));
+        hits.addAll(hits("other-app", "/events/4", 9, now));
+        tracker.record(hits);
+
+        assertThat(tracker.getTop(APP, 2, TopWindow.HOUR))
+                .extracting(ViewStats::getUri, ViewStats::getHits)
+                .containsExactly(tuple("/events/2", 7L), tuple("/events/3", 5L));
+        assertThat(tracker.getTop("other-app", 10, TopWindow.DAY)).extracting(ViewStats::getUri)
+                .containsExactly("/events/4");
+        assertThat(tracker.getTop("unknown-app", 10, TopWindow.DAY)).isEmpty();
+    }
+
+    @Test
+    void hitsOlderThanAnHourCountOnlyInTheDayWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        tracker.record(hits(APP, "/events/old", 8, now.minusHours(2)));
+        tracker.record(hits(APP, "/events/new", 2, now));
+        tracker.record(hits(APP, "/events/expired", 20, now.minusDays(2)));
+
+        assertThat(tracker.getTop(APP, 10, TopWindow.HOUR)).extracting(ViewStats::getUri)
+                .containsExactly("/events/new");
+        assertThat(tracker.getTop(APP, 10, TopWindow.DAY)).extracting(ViewStats::getUri, ViewStats::getHits)
+                .containsExactly(tuple("/events/old", 8L), tuple("/events/new", 2L));
+    }
+
+    @Test
+    void kOutsideOneToCapacityIsRejected() {
+        assertThatThrownBy(() -> tracker.getTop(APP, 0, TopWindow.HOUR)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> tracker.getTop(APP, 11, TopWindow.HOUR)).isInstanceOf(BadRequestException.class);
+    }
+
+    private static List<EndpointHit> hits(String app, String uri, int count, LocalDateTime timestamp) {
+        List<EndpointHit> hits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            hits.add(EndpointHit.builder()
+                    .app(app)
+                    .uri(uri)
+                    .timestamp(timestamp)
+                    .build());
+        }
+        return hits;
+    }
+}
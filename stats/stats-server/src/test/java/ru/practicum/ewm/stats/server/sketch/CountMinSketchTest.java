@@ -0,0 +1,47 @@
+package ru.practicum.ewm.stats.server.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountMinSketchTest {
+
+    @Test
+    void estimateNeverUndercountsAndStaysWithinTheErrorBound() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        Random random = new Random(42);
+        long[] exact = new long[5_000];
+        long total = 0;
+        for (int i = 0; i < 100_000; i++) {
+            int key = (int) Math.min(exact.length - 1, Math.abs(random.nextGaussian()) * 500);
+            sketch.add(SketchHashing.hash64("/events/" + key), 1);
+            exact[key]++;
+            total++;
+        }
+
+        // With width w the overestimate exceeds e / w * total with probability at most e^-depth.
+        long bound = (long) (Math.E / 1024 * total);
+        int outliers = 0;
+        for (int key = 0; key < exact.length; key++) {
+            long estimate = sketch.estimate(SketchHashing.hash64("/events/" + key));
+            assertThat(estimate).isGreaterThanOrEqualTo(exact[key]);
+            if (estimate - exact[key] > bound) {
+                outliers++;
+            }
+        }
+        assertThat(outliers).isLessThan(exact.length / 50);
+    }
+
+    @Test
+    void clearResetsAllCounters() {
+        CountMinSketch sketch = new CountMinSketch(4, 1024);
+        long hash = SketchHashing.hash64("/events/1");
+        sketch.add(hash, 7);
+
+        sketch.clear();
+
+        assertThat(sketch.estimate(hash)).isZero();
+    }
+}
@@ -0,0 +1,85 @@
+package ru.practicum.ewm.stats.server.sketch;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HyperLogLogTest {
+
+    private static final double STANDARD_ERROR = 1.04 / Math.sqrt(HyperLogLog.REGISTERS);
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 1_000, 10_000, 100_000, 1_000_000})
+    void estimateStaysWithinThreeStandardErrors(int distinct) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < distinct; i++) {
+            sketch.add(ipv4(i));
+            sketch.add(ipv4(i));
+        }
+
+        assertThat(relativeError(sketch.estimate(), distinct)).isLessThan(3 * STANDARD_ERROR);
+    }
+
+    @Test
+    void mergedHourlySketchesMatchExactUnionWithinBound() {
+        Random random = new Random(42);
+        Set<Integer> exact = new HashSet<>();
+        HyperLogLog day = new HyperLogLog();
+
+        for (int hour = 0; hour < 24; hour++) {
+            HyperLogLog hourly = new HyperLogLog();
+            for (int i = 0; i < 5_000; i++) {
+                int ip = random.nextInt(60_000);
+                exact.add(ip);
+                hourly.add(ipv4(ip));
+            }
+            day.merge(HyperLogLog.fromBytes(hourly.toBytes()));
+        }
+
+        assertThat(relativeError(day.estimate(), exact.size())).isLessThan(3 * STANDARD_ERROR);
+    }
+
+    @Test
+    void mergeReportsWhetherRegistersChanged() {
+        HyperLogLog sketch = new HyperLogLog();
+        sketch.add(ipv4(1));
+        HyperLogLog copy = HyperLogLog.fromBytes(sketch.toBytes());
+
+        assertThat(copy.merge(sketch)).isFalse();
+
+        HyperLogLog other = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            other.add(ipv4(i));
+        }
+        assertThat(copy.merge(other)).isTrue();
+    }
+
+    @Test
+    void sketchSizeIsFixedWhileExactSetGrowsWithCardinality() {
+        int distinct = 100_000;
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < distinct; i++) {
+            sketch.add(ipv4(i));
+        }
+
+        int sketchBytes = sketch.toBytes().length;
+        int exactBytes = distinct * Integer.BYTES;
+        assertThat(sketchBytes).isEqualTo(4096);
+        assertThat(exactBytes / sketchBytes).isGreaterThanOrEqualTo(97);
+    }
+
+    private static double relativeError(long estimate, int exact) {
+        return Math.abs(estimate - exact) / (double) exact;
+    }
+
+    private static byte[] ipv4(int value) {
+        return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+    }
+}
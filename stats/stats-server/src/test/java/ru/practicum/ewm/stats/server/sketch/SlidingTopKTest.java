@@ -0,0 +1,86 @@
+package ru.practicum.ewm.stats.server.sketch;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.ewm.stats.server.model.TopWindow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SlidingTopKTest {
+
+    private static final long START = 1_700_000_000L / 3600 * 3600;
+
+    @Test
+    void heavyHittersAreOrderedByCountAcrossSlots() {
+        SlidingTopK topK = window(TopWindow.HOUR, 10);
+        add(topK, "/events/2", 20, START, START);
+        add(topK, "/events/1", 10, START, START);
+        add(topK, "/events/1", 20, START + 600, START + 600);
+        add(topK, "/events/3", 5, START + 600, START + 600);
+
+        assertThat(topK.top(3, START + 600))
+                .extracting(SlidingTopK.Entry::getKey, SlidingTopK.Entry::getCount)
+                .containsExactly(tuple("/events/1", 30L), tuple("/events/2", 20L), tuple("/events/3", 5L));
+        assertThat(topK.top(1, START + 600)).extracting(SlidingTopK.Entry::getKey).containsExactly("/events/1");
+    }
+
+    @Test
+    void capacityKeepsOnlyTheHeaviestKeysOfASlot() {
+        SlidingTopK topK = window(TopWindow.HOUR, 2);
+        add(topK, "/events/1", 5, START, START);
+        add(topK, "/events/2", 4, START, START);
+        add(topK, "/events/3", 1, START, START);
+
+        assertThat(topK.top(3, START)).extracting(SlidingTopK.Entry::getKey)
+                .containsExactly("/events/1", "/events/2");
+    }
+
+    @Test
+    void hourWindowExpiresMinuteSlotsAsTheyRotateOut() {
+        SlidingTopK topK = window(TopWindow.HOUR, 10);
+        long lastMinute = START + 59 * 60;
+        add(topK, "/old", 5, START, START);
+        add(topK, "/new", 3, lastMinute, lastMinute);
+
+        assertThat(topK.top(2, lastMinute)).extracting(SlidingTopK.Entry::getKey).containsExactly("/old", "/new");
+        assertThat(topK.top(2, START + 3600)).extracting(SlidingTopK.Entry::getKey).containsExactly("/new");
+
+        add(topK, "/late", 1, START, START + 3600);
+        add(topK, "/wrapped", 2, START + 3600, START + 3600);
+        assertThat(topK.top(3, START + 3600)).extracting(SlidingTopK.Entry::getKey, SlidingTopK.Entry::getCount)
+                .containsExactly(tuple("/new", 3L), tuple("/wrapped", 2L));
+        assertThat(topK.top(3, START + 2 * 3600)).isEmpty();
+    }
+
+    @Test
+    void dayWindowExpiresHourSlotsAsTheyRotateOut() {
+        SlidingTopK topK = window(TopWindow.DAY, 10);
+        long lastHour = START + 23 * 3600;
+        add(topK, "/yesterday", 4, START + 1800, START + 1800);
+        add(topK, "/today", 2, lastHour, lastHour);
+
+        assertThat(topK.top(2, lastHour + 3599)).extracting(SlidingTopK.Entry::getKey)
+                .containsExactly("/yesterday", "/today");
+        assertThat(topK.top(2, START + 24 * 3600)).extracting(SlidingTopK.Entry::getKey).containsExactly("/today");
+        assertThat(topK.top(2, lastHour + 24 * 3600)).isEmpty();
+    }
+
+    @Test
+    void hitsForASlotAlreadyReusedByALaterPeriodAreDropped() {
+        SlidingTopK topK = window(TopWindow.HOUR, 10);
+        add(topK, "/current", 1, START + 3600, START + 3600);
+        add(topK, "/stale", 1, START, START + 3599);
+
+        assertThat(topK.top(2, START + 3600)).extracting(SlidingTopK.Entry::getKey).containsExactly("/current");
+    }
+
+    private static SlidingTopK window(TopWindow window, int capacity) {
+        return new SlidingTopK(window.getSlotCount(), window.getSlotSeconds(), capacity);
+    }
+
+    private static void add(SlidingTopK topK, String key, int times, long epochSecond, long now) {
+        for (int i = 0; i < times; i++) {
+            topK.add(key, epochSecond, now);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package ru.practicum.ewm.stats.server.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.practicum.ewm.stats.server.model.DictionaryKind;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DictionaryJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void tornEntryIsDiscardedAndTruncated() throws IOException {
+        Path path = directory.resolve("dictionary.journal");
+        DictionaryJournal journal = DictionaryJournal.open(path);
+        journal.record(DictionaryKind.APP, 1, "ewm-main-service");
+        journal.record(DictionaryKind.URI, 1, "/events/1");
+        journal.force();
+        long complete = Files.size(path);
+
+        ByteBuffer torn = ByteBuffer.allocate(12)
+                .put((byte) DictionaryKind.URI.ordinal())
+                .putInt(2)
+                .putInt(9)
+                .put(new byte[]{'/', 'e', 'v'})
+                .flip();
+        Files.write(path, torn.array(), StandardOpenOption.APPEND);
+
+        DictionaryJournal recovered = DictionaryJournal.open(path);
+        assertThat(recovered.getEntries(DictionaryKind.APP)).isEqualTo(Map.of(1, "ewm-main-service"));
+        assertThat(recovered.getEntries(DictionaryKind.URI)).isEqualTo(Map.of(1, "/events/1"));
+        assertThat(Files.size(path)).isEqualTo(complete);
+
+        recovered.record(DictionaryKind.URI, 2, "/events/2");
+        recovered.force();
+        assertThat(DictionaryJournal.open(path).getEntries(DictionaryKind.URI))
+                .isEqualTo(Map.of(1, "/events/1", 2, "/events/2"));
+    }
+}
@@ -0,0 +1,77 @@
+package ru.practicum.ewm.stats.server.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogSegmentTest {
+
+    private static final int CAPACITY = 16;
+    private static final long SECOND = 1_700_000_000L;
+    private static final byte[] IP = {10, 0, 0, 1};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void tornTailRecordIsDroppedAndOverwritten() throws IOException {
+        Path path = directory.resolve("segment.log");
+        LogSegment segment = LogSegment.open(path, 0, CAPACITY);
+        for (int i = 0; i < 3; i++) {
+            segment.append(1, 1, IP, SECOND + i);
+        }
+        segment.force();
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(3L * LogSegment.RECORD_SIZE);
+            file.writeInt(1);
+            file.writeInt(2);
+        }
+
+        LogSegment recovered = LogSegment.open(path, 0, CAPACITY);
+        assertThat(recovered.getSize()).isEqualTo(3);
+
+        recovered.append(1, 3, IP, SECOND + 3);
+        assertThat(uriIds(recovered)).containsExactly(1, 1, 1, 3);
+    }
+
+    @Test
+    void recordsPastAnUnflushedHoleAreNotResurrected() throws IOException {
+        Path path = directory.resolve("segment.log");
+        LogSegment segment = LogSegment.open(path, 0, CAPACITY);
+        for (int i = 0; i < 5; i++) {
+            segment.append(1, i + 1, IP, SECOND + i);
+        }
+        segment.force();
+        clearTimestamp(path, 2);
+
+        LogSegment recovered = LogSegment.open(path, 0, CAPACITY);
+        assertThat(recovered.getSize()).isEqualTo(2);
+        recovered.append(1, 9, IP, SECOND + 9);
+        recovered.force();
+
+        LogSegment reopened = LogSegment.open(path, 0, CAPACITY);
+        assertThat(uriIds(reopened)).containsExactly(1, 2, 9);
+    }
+
+    private static void clearTimestamp(Path path, int record) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek((long) record * LogSegment.RECORD_SIZE + LogSegment.RECORD_SIZE - Long.BYTES);
+            file.writeLong(0);
+        }
+    }
+
+    private static List<Integer> uriIds(LogSegment segment) {
+        List<Integer> uriIds = new ArrayList<>();
+        segment.scan(Long.MIN_VALUE, Long.MAX_VALUE, Set.of(), (appId, uriId, record) -> uriIds.add(uriId));
+        return uriIds;
+    }
+}